@@ -2,18 +2,26 @@ package com.se300.store;
 
 import com.se300.store.controller.StoreController;
 import com.se300.store.controller.UserController;
+import com.se300.store.data.CommandJournal;
 import com.se300.store.data.DataManager;
 import com.se300.store.repository.StoreRepository;
 import com.se300.store.repository.UserRepository;
+import com.se300.store.model.StoreException;
 import com.se300.store.service.AuthenticationService;
+import com.se300.store.service.DeviceEventPipeline;
 import com.se300.store.service.StoreService;
+import com.se300.store.service.StoreWriteLanes;
 import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
 import org.apache.catalina.startup.Tomcat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * SmartStoreApplication - Main application class.
@@ -24,9 +32,36 @@ import java.io.File;
 public class SmartStoreApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(SmartStoreApplication.class);
-    private static final int PORT = 8080;
+    private static final int DEFAULT_PORT = 8080;
+    // HTTP port of the embedded Tomcat
+    private static final String PORT_PROPERTY = "smartstore.http.port";
+    // When true servlet requests run on virtual threads instead of the platform worker pool
+    private static final String VIRTUAL_THREADS_PROPERTY = "smartstore.http.virtualThreads";
+    // Size of the platform worker pool, not used with virtual threads
+    private static final String MAX_THREADS_PROPERTY = "smartstore.http.maxThreads";
+    // Maximum number of connections the connector keeps open
+    private static final String MAX_CONNECTIONS_PROPERTY = "smartstore.http.maxConnections";
+    // Number of connections queued by the operating system once maxConnections is reached
+    private static final String ACCEPT_COUNT_PROPERTY = "smartstore.http.acceptCount";
+    // Location of the write-ahead command journal, journaling is disabled when not set
+    private static final String JOURNAL_PROPERTY = "smartstore.journal";
+    // Location of the binary snapshot loaded on startup and written on shutdown
+    private static final String SNAPSHOT_PROPERTY = "smartstore.snapshot";
+    // When true every StoreService call must carry a valid session token
+    private static final String AUTH_REQUIRED_PROPERTY = "smartstore.auth.required";
+    // Number of Device event consumer threads, 0 processes the events on the request threads
+    private static final String EVENT_CONSUMERS_PROPERTY = "smartstore.events.consumers";
+    // Number of slots of the ring buffer of every event consumer
+    private static final String EVENT_CAPACITY_PROPERTY = "smartstore.events.capacity";
+    // Number of worker threads of the single writer Store lanes, 0 applies mutations on the request threads
+    private static final String LANE_THREADS_PROPERTY = "smartstore.lanes.threads";
 
     private Tomcat tomcat;
+    private int port;
+    private CommandJournal journal;
+    private DeviceEventPipeline eventPipeline;
+    private StoreWriteLanes writeLanes;
+    private StoreService storeService;
 
     /**
      * Main method - application entry point.
@@ -77,8 +112,13 @@ public class SmartStoreApplication {
 
         // Step 3: Create services (Business Logic Layer)
         logger.info("Creating services...");
-        StoreService storeService = new StoreService(storeRepository);
         AuthenticationService userService = new AuthenticationService(userRepository);
+        journal = openJournal();
+        eventPipeline = createEventPipeline();
+        writeLanes = createWriteLanes();
+        storeService = new StoreService(storeRepository, writeLanes, journal,
+                Boolean.getBoolean(AUTH_REQUIRED_PROPERTY) ? userService : null, eventPipeline);
+        recover(storeService);
 
         // Step 4: Create controllers (Presentation Layer)
         logger.info("Creating controllers...");
@@ -87,9 +127,10 @@ public class SmartStoreApplication {
 
         // Step 5: Configure and start Tomcat
         logger.info("Configuring Tomcat server...");
+        port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
         tomcat = new Tomcat();
-        tomcat.setPort(PORT);
-        tomcat.getConnector(); // Initialize default connector
+        tomcat.setPort(port);
+        configureConnector(tomcat.getConnector()); // Initialize default connector
 
         // Create context
         String contextPath = "";
@@ -98,7 +139,9 @@ public class SmartStoreApplication {
 
         // Register Store Controller servlet
         Tomcat.addServlet(context, "storeController", storeController);
-        context.addServletMappingDecoded("/api/v1/stores/*", "storeController");
+        for (String urlPattern : StoreController.URL_PATTERNS) {
+            context.addServletMappingDecoded(urlPattern, "storeController");
+        }
 
         // Register User Controller servlet
         Tomcat.addServlet(context, "userController", userController);
@@ -110,11 +153,13 @@ public class SmartStoreApplication {
         logger.info("=".repeat(80));
         logger.info("Smart Store Application started successfully!");
         logger.info("=".repeat(80));
-        logger.info("Server running on: http://localhost:{}", PORT);
+        logger.info("Server running on: http://localhost:{}", port);
         logger.info("");
         logger.info("Available endpoints:");
-        logger.info("  - API:            http://localhost:{}/api/v1/stores", PORT);
-        logger.info("  - API:            http://localhost:{}/api/v1/users", PORT);
+        for (String urlPattern : StoreController.URL_PATTERNS) {
+            logger.info("  - API:            http://localhost:{}{}", port, urlPattern.replace("/*", ""));
+        }
+        logger.info("  - API:            http://localhost:{}/api/v1/users", port);
         logger.info("=".repeat(80));
 
         // Add shutdown hook
@@ -126,6 +171,125 @@ public class SmartStoreApplication {
         }
     }
 
+    /**
+     * Gets the HTTP port of the server.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Applies the request execution mode and the connector limits configured by the
+     * smartstore.http.* system properties. Limits that are not configured keep the
+     * Tomcat defaults.
+     */
+    private void configureConnector(Connector connector) {
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+            //Every request gets its own virtual thread, so blocking calls no longer tie up a pooled worker
+            setConnectorProperty(connector, "useVirtualThreads", "true");
+            logger.info("Running requests on virtual threads");
+        } else {
+            setConnectorProperty(connector, "maxThreads", System.getProperty(MAX_THREADS_PROPERTY));
+        }
+        setConnectorProperty(connector, "maxConnections", System.getProperty(MAX_CONNECTIONS_PROPERTY));
+        setConnectorProperty(connector, "acceptCount", System.getProperty(ACCEPT_COUNT_PROPERTY));
+    }
+
+    private void setConnectorProperty(Connector connector, String name, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        if (!connector.setProperty(name, value.trim())) {
+            logger.warn("Connector does not support {}={}", name, value);
+        }
+    }
+
+    /**
+     * Opens the command journal configured by the smartstore.journal system property.
+     *
+     * @return opened journal or null if journaling is disabled
+     */
+    private CommandJournal openJournal() throws LifecycleException {
+        String journalPath = System.getProperty(JOURNAL_PROPERTY);
+        if (journalPath == null || journalPath.isBlank()) {
+            return null;
+        }
+
+        logger.info("Opening command journal {}", journalPath);
+        try {
+            return CommandJournal.open(Path.of(journalPath));
+        } catch (IOException e) {
+            throw new LifecycleException("Failed to open command journal " + journalPath, e);
+        }
+    }
+
+    /**
+     * Creates the single writer Store lanes configured by the smartstore.lanes.threads system property.
+     * Lanes are opt-in, by default mutations are applied on the request threads.
+     *
+     * @return write lanes or null if mutations are applied on the request threads
+     */
+    private StoreWriteLanes createWriteLanes() {
+        int threads = Integer.getInteger(LANE_THREADS_PROPERTY, 0);
+        if (threads <= 0) {
+            return null;
+        }
+
+        logger.info("Starting {} store lane workers", threads);
+        return new StoreWriteLanes(threads);
+    }
+
+    /**
+     * Creates the Device event pipeline configured by the smartstore.events.* system properties.
+     * The pipeline is opt-in, by default events are processed synchronously on the request threads.
+     *
+     * @return event pipeline or null if events are processed on the request threads
+     */
+    private DeviceEventPipeline createEventPipeline() {
+        int consumers = Integer.getInteger(EVENT_CONSUMERS_PROPERTY, 0);
+        if (consumers <= 0) {
+            return null;
+        }
+
+        int capacity = Integer.getInteger(EVENT_CAPACITY_PROPERTY, DeviceEventPipeline.DEFAULT_CAPACITY);
+        logger.info("Starting {} device event consumers with {} slots each", consumers, capacity);
+        return new DeviceEventPipeline(consumers, capacity,
+                (device, event, timestamp) -> device.processEvent(event, timestamp));
+    }
+
+    /**
+     * Rebuilds the in-memory state from the snapshot and the part of the command journal
+     * that follows it.
+     */
+    private void recover(StoreService storeService) throws LifecycleException {
+        long start = System.nanoTime();
+        try {
+            long journalPosition = 0;
+            Path snapshot = getSnapshotPath();
+            if (snapshot != null && Files.exists(snapshot)) {
+                journalPosition = storeService.loadSnapshot(snapshot);
+                logger.info("Loaded snapshot {} in {} ms", snapshot, (System.nanoTime() - start) / 1_000_000);
+            }
+
+            if (journal != null) {
+                long records = storeService.recoverJournal(journalPosition);
+                logger.info("Recovered {} journal records in {} ms", records, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (StoreException e) {
+            throw new LifecycleException("Failed to recover store state: " + e.getReason(), e);
+        }
+    }
+
+    /**
+     * Gets the snapshot location configured by the smartstore.snapshot system property.
+     *
+     * @return snapshot location or null if snapshots are disabled
+     */
+    private Path getSnapshotPath() {
+        String snapshotPath = System.getProperty(SNAPSHOT_PROPERTY);
+        return snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
     /**
      * Stops the server.
      * Useful for testing scenarios where you need to explicitly stop the server.
@@ -153,6 +317,20 @@ public class SmartStoreApplication {
                 tomcat.stop();
                 tomcat.destroy();
             }
+            if (eventPipeline != null) {
+                eventPipeline.close();
+            }
+            if (writeLanes != null) {
+                writeLanes.shutdown();
+            }
+            Path snapshot = getSnapshotPath();
+            if (snapshot != null && storeService != null) {
+                storeService.saveSnapshot(snapshot);
+                logger.info("Saved snapshot {}", snapshot);
+            }
+            if (journal != null) {
+                journal.close();
+            }
 
             logger.info("Application shut down successfully");
         } catch (Exception e) {
@@ -1,62 +1,421 @@
 package com.se300.store.controller;
 
-import com.se300.store.model.Store;
-import com.se300.store.model.StoreException;
+import com.google.gson.reflect.TypeToken;
+import com.se300.store.data.Page;
+import com.se300.store.model.*;
+import com.se300.store.service.BatchOperation;
+import com.se300.store.service.BatchResult;
 import com.se300.store.service.StoreService;
 import com.se300.store.servlet.BaseServlet;
+import com.se300.store.servlet.PathRouter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.Collection;
+import java.lang.reflect.Type;
+import java.util.List;
 
 /**
  * REST API controller for Store operations
- * Implements full CRUD operations
+ * Implements the store, aisle, shelf, product, inventory, customer, basket and device
+ * endpoints of the OpenAPI specification on top of the StoreService. The servlet is
+ * mapped to every top level resource and routes the requests by their full path
  *
  * @author Sergey L. Sundukovskiy, Ph.D.
  * @version 1.0
  */
 public class StoreController extends BaseServlet {
 
-    //TODO: Implement REST CRUD API for Store operations
+    // URL patterns the controller has to be mapped to
+    public static final String[] URL_PATTERNS = {
+            "/api/v1/stores/*", "/api/v1/products/*", "/api/v1/inventory/*",
+            "/api/v1/customers/*", "/api/v1/baskets/*", "/api/v1/devices/*"
+    };
+
+    private static final String API = "/api/v1";
+
+    private static final Type BATCH_TYPE = new TypeToken<List<BatchOperation>>() { }.getType();
 
     private final StoreService storeService;
 
     public StoreController(StoreService storeService) {
         this.storeService = storeService;
+
+        //Stores
+        route("GET", API + "/stores", this::getStores);
+        route("POST", API + "/stores", this::createStore);
+        route("GET", API + "/stores/{storeId}", this::getStore);
+        route("PUT", API + "/stores/{storeId}", this::updateStore);
+        route("DELETE", API + "/stores/{storeId}", this::deleteStore);
+        route("POST", API + "/stores/{storeId}/batch", this::applyStoreBatch);
+
+        //Aisles and Shelves
+        route("POST", API + "/stores/{storeId}/aisles", this::provisionAisle);
+        route("GET", API + "/stores/{storeId}/aisles/{aisleNumber}", this::showAisle);
+        route("POST", API + "/stores/{storeId}/aisles/{aisleNumber}/shelves", this::provisionShelf);
+        route("GET", API + "/stores/{storeId}/aisles/{aisleNumber}/shelves/{shelfId}", this::showShelf);
+
+        //Products and Inventory
+        route("POST", API + "/products", this::provisionProduct);
+        route("GET", API + "/products/{productId}", this::showProduct);
+        route("POST", API + "/inventory", this::provisionInventory);
+        route("GET", API + "/inventory/{inventoryId}", this::showInventory);
+        route("PUT", API + "/inventory/{inventoryId}", this::updateInventory);
+        route("POST", API + "/inventory/batch", this::updateInventoryBatch);
+
+        //Customers and Baskets
+        route("POST", API + "/customers", this::provisionCustomer);
+        route("GET", API + "/customers/{customerId}", this::showCustomer);
+        route("PUT", API + "/customers/{customerId}", this::updateCustomer);
+        route("GET", API + "/customers/{customerId}/basket", this::getCustomerBasket);
+        route("POST", API + "/baskets", this::provisionBasket);
+        route("GET", API + "/baskets/{basketId}", this::showBasket);
+        route("POST", API + "/baskets/{basketId}/assign", this::assignCustomerBasket);
+        route("POST", API + "/baskets/{basketId}/products", this::addBasketProduct);
+        route("DELETE", API + "/baskets/{basketId}/products", this::removeBasketProduct);
+        route("POST", API + "/baskets/{basketId}/clear", this::clearBasket);
+
+        //Devices
+        route("POST", API + "/stores/{storeId}/devices", this::provisionDevice);
+        route("GET", API + "/devices/{deviceId}", this::showDevice);
+        route("POST", API + "/devices/{deviceId}/event", this::raiseEvent);
+        route("POST", API + "/devices/{deviceId}/command", this::issueCommand);
+        route("GET", API + "/devices/{deviceId}/readings", this::getSensorReadings);
+        route("GET", API + "/devices/{deviceId}/rollups", this::getSensorRollups);
+    }
+
+    /**
+     * GET /api/v1/stores?limit=xxx&cursor=xxx - Get a page of stores ordered by ID
+     */
+    private void getStores(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Page<Store> page = storeService.getStores(request.getParameter(CURSOR_PARAMETER), getPageLimit(request),
+                getBearerToken(request));
+        sendJsonResponse(request, response, page, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/stores?storeId=xxx&name=xxx&address=xxx - Create new store
+     */
+    private void createStore(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Store store = storeService.provisionStore(requireParameter(request, "storeId"),
+                requireParameter(request, "name"), requireParameter(request, "address"),
+                getBearerToken(request));
+        sendJsonResponse(request, response, store, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/stores/{storeId} - Get store by ID
+     */
+    private void getStore(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Store store = storeService.showStore(path.getParameter("storeId"), getBearerToken(request));
+        sendJsonResponse(request, response, store, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * PUT /api/v1/stores/{storeId}?description=xxx&address=xxx - Update existing store
+     */
+    private void updateStore(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Store store = storeService.updateStore(path.getParameter("storeId"),
+                request.getParameter("description"), request.getParameter("address"), getBearerToken(request));
+        sendJsonResponse(request, response, store, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * DELETE /api/v1/stores/{storeId} - Delete store
+     */
+    private void deleteStore(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws StoreException {
+        storeService.deleteStore(path.getParameter("storeId"), getBearerToken(request));
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    /**
+     * POST /api/v1/stores/{storeId}/batch - Apply an array of aisle, shelf, inventory and device
+     * operations to the store, the response has a result per operation
+     */
+    private void applyStoreBatch(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        List<BatchOperation> operations = readJsonBody(request, BATCH_TYPE);
+        List<BatchResult> results = storeService.applyStoreBatch(path.getParameter("storeId"), operations,
+                getBearerToken(request));
+        sendJsonResponse(request, response, results, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/stores/{storeId}/aisles?aisleNumber=xxx&name=xxx&description=xxx&location=xxx
+     */
+    private void provisionAisle(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Aisle aisle = storeService.provisionAisle(path.getParameter("storeId"),
+                requireParameter(request, "aisleNumber"), requireParameter(request, "name"),
+                request.getParameter("description"), enumParameter(request, "location", AisleLocation.class),
+                getBearerToken(request));
+        sendJsonResponse(request, response, aisle, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/stores/{storeId}/aisles/{aisleNumber}
+     */
+    private void showAisle(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Aisle aisle = storeService.showAisle(path.getParameter("storeId"), path.getParameter("aisleNumber"),
+                getBearerToken(request));
+        sendJsonResponse(request, response, aisle, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/stores/{storeId}/aisles/{aisleNumber}/shelves?shelfId=xxx&name=xxx&level=xxx&description=xxx&temperature=xxx
+     */
+    private void provisionShelf(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Shelf shelf = storeService.provisionShelf(path.getParameter("storeId"), path.getParameter("aisleNumber"),
+                requireParameter(request, "shelfId"), requireParameter(request, "name"),
+                enumParameter(request, "level", ShelfLevel.class), request.getParameter("description"),
+                enumParameter(request, "temperature", Temperature.class), getBearerToken(request));
+        sendJsonResponse(request, response, shelf, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/stores/{storeId}/aisles/{aisleNumber}/shelves/{shelfId}
+     */
+    private void showShelf(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Shelf shelf = storeService.showShelf(path.getParameter("storeId"), path.getParameter("aisleNumber"),
+                path.getParameter("shelfId"), getBearerToken(request));
+        sendJsonResponse(request, response, shelf, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/products?productId=xxx&name=xxx&description=xxx&size=xxx&category=xxx&price=xxx&temperature=xxx
+     */
+    private void provisionProduct(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Product product = storeService.provisionProduct(requireParameter(request, "productId"),
+                requireParameter(request, "name"), request.getParameter("description"),
+                request.getParameter("size"), request.getParameter("category"),
+                doubleParameter(request, "price"), enumParameter(request, "temperature", Temperature.class),
+                getBearerToken(request));
+        sendJsonResponse(request, response, product, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/products/{productId}
+     */
+    private void showProduct(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Product product = storeService.showProduct(path.getParameter("productId"), getBearerToken(request));
+        sendJsonResponse(request, response, product, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/inventory?inventoryId=xxx&storeId=xxx&aisleNumber=xxx&shelfId=xxx&capacity=xxx&count=xxx&productId=xxx&type=xxx
+     */
+    private void provisionInventory(HttpServletRequest request, HttpServletResponse response,
+                                    PathRouter.Match<?> path) throws IOException, StoreException {
+        Inventory inventory = storeService.provisionInventory(requireParameter(request, "inventoryId"),
+                requireParameter(request, "storeId"), requireParameter(request, "aisleNumber"),
+                requireParameter(request, "shelfId"), intParameter(request, "capacity"),
+                intParameter(request, "count"), requireParameter(request, "productId"),
+                enumParameter(request, "type", InventoryType.class), getBearerToken(request));
+        sendJsonResponse(request, response, inventory, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/inventory/{inventoryId}
+     */
+    private void showInventory(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Inventory inventory = storeService.showInventory(path.getParameter("inventoryId"), getBearerToken(request));
+        sendJsonResponse(request, response, inventory, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * PUT /api/v1/inventory/{inventoryId}?count=xxx - Change the inventory count by the given amount
+     */
+    private void updateInventory(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Inventory inventory = storeService.updateInventory(path.getParameter("inventoryId"),
+                intParameter(request, "count"), getBearerToken(request));
+        sendJsonResponse(request, response, inventory, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/inventory/batch - Update the count of many inventory items, body is an array of
+     * {inventoryId, count} and the response has a result per item
+     */
+    private void updateInventoryBatch(HttpServletRequest request, HttpServletResponse response,
+                                      PathRouter.Match<?> path) throws IOException, StoreException {
+        List<BatchOperation> updates = readJsonBody(request, BATCH_TYPE);
+        List<BatchResult> results = storeService.updateInventoryBatch(updates, getBearerToken(request));
+        sendJsonResponse(request, response, results, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/customers?customerId=xxx&firstName=xxx&lastName=xxx&type=xxx&email=xxx&address=xxx
+     */
+    private void provisionCustomer(HttpServletRequest request, HttpServletResponse response,
+                                   PathRouter.Match<?> path) throws IOException, StoreException {
+        Customer customer = storeService.provisionCustomer(requireParameter(request, "customerId"),
+                requireParameter(request, "firstName"), requireParameter(request, "lastName"),
+                enumParameter(request, "type", CustomerType.class), request.getParameter("email"),
+                request.getParameter("address"), getBearerToken(request));
+        sendJsonResponse(request, response, customer, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/customers/{customerId}
+     */
+    private void showCustomer(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Customer customer = storeService.showCustomer(path.getParameter("customerId"), getBearerToken(request));
+        sendJsonResponse(request, response, customer, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * PUT /api/v1/customers/{customerId}?storeId=xxx&aisleNumber=xxx - Update customer location
+     */
+    private void updateCustomer(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Customer customer = storeService.updateCustomer(path.getParameter("customerId"),
+                requireParameter(request, "storeId"), requireParameter(request, "aisleNumber"),
+                getBearerToken(request));
+        sendJsonResponse(request, response, customer, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * GET /api/v1/customers/{customerId}/basket
+     */
+    private void getCustomerBasket(HttpServletRequest request, HttpServletResponse response,
+                                   PathRouter.Match<?> path) throws IOException, StoreException {
+        Basket basket = storeService.getCustomerBasket(path.getParameter("customerId"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/baskets?basketId=xxx
+     */
+    private void provisionBasket(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Basket basket = storeService.provisionBasket(requireParameter(request, "basketId"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/baskets/{basketId}
+     */
+    private void showBasket(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Basket basket = storeService.showBasket(path.getParameter("basketId"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/baskets/{basketId}/assign?customerId=xxx
+     */
+    private void assignCustomerBasket(HttpServletRequest request, HttpServletResponse response,
+                                      PathRouter.Match<?> path) throws IOException, StoreException {
+        Basket basket = storeService.assignCustomerBasket(requireParameter(request, "customerId"),
+                path.getParameter("basketId"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/baskets/{basketId}/products?productId=xxx&count=xxx
+     */
+    private void addBasketProduct(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Basket basket = storeService.addBasketProduct(path.getParameter("basketId"),
+                requireParameter(request, "productId"), intParameter(request, "count"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * DELETE /api/v1/baskets/{basketId}/products?productId=xxx&count=xxx
+     */
+    private void removeBasketProduct(HttpServletRequest request, HttpServletResponse response,
+                                     PathRouter.Match<?> path) throws IOException, StoreException {
+        Basket basket = storeService.removeBasketProduct(path.getParameter("basketId"),
+                requireParameter(request, "productId"), intParameter(request, "count"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/baskets/{basketId}/clear
+     */
+    private void clearBasket(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Basket basket = storeService.clearBasket(path.getParameter("basketId"), getBearerToken(request));
+        sendJsonResponse(request, response, basket, HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/stores/{storeId}/devices?deviceId=xxx&name=xxx&deviceType=xxx&aisleNumber=xxx
+     */
+    private void provisionDevice(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Device device = storeService.provisionDevice(requireParameter(request, "deviceId"),
+                requireParameter(request, "name"), requireParameter(request, "deviceType"),
+                path.getParameter("storeId"), requireParameter(request, "aisleNumber"), getBearerToken(request));
+        sendJsonResponse(request, response, device, HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * GET /api/v1/devices/{deviceId}
+     */
+    private void showDevice(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        Device device = storeService.showDevice(path.getParameter("deviceId"), getBearerToken(request));
+        sendJsonResponse(request, response, device, HttpServletResponse.SC_OK);
     }
 
     /**
-     * Handle GET requests
-     * - GET /api/v1/stores (no parameters) - Get all stores
-     * - GET /api/v1/stores/{storeId} - Get store by ID
+     * GET /api/v1/devices/{deviceId}/readings?from=xxx&to=xxx - Get the raw readings of a sensor,
+     * from and to are epoch milliseconds
      */
-    @Override
-    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void getSensorReadings(HttpServletRequest request, HttpServletResponse response,
+                                   PathRouter.Match<?> path) throws IOException, StoreException {
+        SensorSeries.Readings readings = storeService.getSensorReadings(path.getParameter("deviceId"),
+                longParameter(request, "from", 0), longParameter(request, "to", Long.MAX_VALUE),
+                getBearerToken(request));
+        sendJsonResponse(request, response, readings, HttpServletResponse.SC_OK);
     }
 
     /**
-     * Handle POST requests - Create new store
-     * POST /api/v1/stores?storeId=xxx&name=xxx&address=xxx
+     * GET /api/v1/devices/{deviceId}/rollups?resolution=xxx&from=xxx&to=xxx - Get the MINUTE or
+     * HOUR rollups of the readings of a sensor
      */
-    @Override
-    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void getSensorRollups(HttpServletRequest request, HttpServletResponse response,
+                                  PathRouter.Match<?> path) throws IOException, StoreException {
+        List<SensorSeries.Rollup> rollups = storeService.getSensorRollups(path.getParameter("deviceId"),
+                enumParameter(request, "resolution", SensorSeries.Resolution.class),
+                longParameter(request, "from", 0), longParameter(request, "to", Long.MAX_VALUE),
+                getBearerToken(request));
+        sendJsonResponse(request, response, rollups, HttpServletResponse.SC_OK);
     }
 
     /**
-     * Handle PUT requests - Update existing store
-     * PUT /api/v1/stores/{storeId}?description=xxx&address=xxx
+     * POST /api/v1/devices/{deviceId}/event?event=xxx
      */
-    @Override
-    protected void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void raiseEvent(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        String deviceId = path.getParameter("deviceId");
+        String token = getBearerToken(request);
+        storeService.raiseEvent(deviceId, requireParameter(request, "event"), token);
+        sendJsonResponse(request, response, storeService.showDevice(deviceId, token), HttpServletResponse.SC_OK);
     }
 
     /**
-     * Handle DELETE requests - Delete store
-     * DELETE /api/v1/stores/{storeId}
+     * POST /api/v1/devices/{deviceId}/command?command=xxx
      */
-    @Override
-    protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void issueCommand(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        String deviceId = path.getParameter("deviceId");
+        String token = getBearerToken(request);
+        storeService.issueCommand(deviceId, requireParameter(request, "command"), token);
+        sendJsonResponse(request, response, storeService.showDevice(deviceId, token), HttpServletResponse.SC_OK);
     }
-}
\ No newline at end of file
+}
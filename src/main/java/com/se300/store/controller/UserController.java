@@ -1,61 +1,187 @@
 package com.se300.store.controller;
 
+import com.se300.store.data.Page;
+import com.se300.store.model.StoreException;
 import com.se300.store.model.User;
 import com.se300.store.service.AuthenticationService;
 import com.se300.store.servlet.BaseServlet;
+import com.se300.store.servlet.PathRouter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * REST API controller for User operations
- * Implements full CRUD operations
+ * Implements full CRUD operations together with login and logout. Reading, updating and deleting
+ * a user requires the session of that user or of the administrator, passwords are never returned
  *
  * @author Sergey L. Sundukovskiy, Ph.D.
  * @version 1.0
  */
 public class UserController extends BaseServlet {
 
-    //TODO: Implement REST CRUD API for User operations
+    private static final String USERS = "/api/v1/users";
 
     private final AuthenticationService authenticationService;
 
     public UserController(AuthenticationService authenticationService) {
         this.authenticationService = authenticationService;
+
+        route("GET", USERS, this::getUsers);
+        route("POST", USERS, this::registerUser);
+        route("POST", USERS + "/login", this::login);
+        route("POST", USERS + "/logout", this::logout);
+        route("GET", USERS + "/{email}", this::getUser);
+        route("PUT", USERS + "/{email}", this::updateUser);
+        route("DELETE", USERS + "/{email}", this::deleteUser);
+    }
+
+    /**
+     * GET /api/v1/users?limit=xxx&cursor=xxx - Get a page of users ordered by email
+     */
+    private void getUsers(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        if (!authorize(request, response, null)) {
+            return;
+        }
+        try {
+            Page<User> page = authenticationService.getUsers(request.getParameter(CURSOR_PARAMETER),
+                    getPageLimit(request));
+            Page<UserView> view = new Page<>(page.getItems().stream().map(UserView::new).collect(Collectors.toList()),
+                    page.getNextCursor());
+            sendJsonResponse(request, response, view, HttpServletResponse.SC_OK);
+        } catch (IllegalArgumentException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * POST /api/v1/users?email=xxx&password=xxx&name=xxx - Register new user
+     */
+    private void registerUser(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        String email = requireParameter(request, "email");
+        String password = requireParameter(request, "password");
+        String name = requireParameter(request, "name");
+        //Email is claimed atomically, of concurrent registrations only one succeeds
+        User user = authenticationService.registerUser(email, password, name);
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_CONFLICT, "User Already Exists");
+            return;
+        }
+        sendJsonResponse(request, response, new UserView(user), HttpServletResponse.SC_CREATED);
+    }
+
+    /**
+     * POST /api/v1/users/login?email=xxx&password=xxx - Open a session, the token is passed
+     * as a Bearer token by the following requests
+     */
+    private void login(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException, StoreException {
+        String token = authenticationService.login(requireParameter(request, "email"),
+                requireParameter(request, "password"));
+        if (token == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid Credentials");
+            return;
+        }
+        sendJsonResponse(request, response, Map.of("token", token), HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * POST /api/v1/users/logout - End the session of the Bearer token
+     */
+    private void logout(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException {
+        if (!authenticationService.logout(getBearerToken(request))) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid Token");
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
     }
 
     /**
-     * Handle GET requests
-     * - GET /api/v1/users (no parameters) - Get all users
-     * - GET /api/v1/users/{email} - Get user by email
+     * GET /api/v1/users/{email} - Get user by email
      */
-    @Override
-    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void getUser(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException {
+        String email = path.getParameter("email");
+        if (!authorize(request, response, email)) {
+            return;
+        }
+        User user = authenticationService.getUserByEmail(email);
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_NOT_FOUND, "User Does Not Exist");
+            return;
+        }
+        sendJsonResponse(request, response, new UserView(user), HttpServletResponse.SC_OK);
     }
 
     /**
-     * Handle POST requests - Register new user
-     * POST /api/v1/users?email=xxx&password=xxx&name=xxx
+     * PUT /api/v1/users/{email}?password=xxx&name=xxx - Update user information
      */
-    @Override
-    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void updateUser(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException {
+        String email = path.getParameter("email");
+        if (!authorize(request, response, email)) {
+            return;
+        }
+        User user = authenticationService.updateUser(email, request.getParameter("password"),
+                request.getParameter("name"));
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_NOT_FOUND, "User Does Not Exist");
+            return;
+        }
+        sendJsonResponse(request, response, new UserView(user), HttpServletResponse.SC_OK);
     }
 
     /**
-     * Handle PUT requests - Update user information
-     * PUT /api/v1/users/{email}?password=xxx&name=xxx
+     * DELETE /api/v1/users/{email} - Delete user
      */
-    @Override
-    protected void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private void deleteUser(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+            throws IOException {
+        String email = path.getParameter("email");
+        if (!authorize(request, response, email)) {
+            return;
+        }
+        if (!authenticationService.deleteUser(email)) {
+            sendErrorResponse(response, HttpServletResponse.SC_NOT_FOUND, "User Does Not Exist");
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
     }
 
     /**
-     * Handle DELETE requests - Delete user
-     * DELETE /api/v1/users/{email}
+     * Helper method checking that the Bearer token belongs to the user of the email or to the administrator
+     * @param email email of the user, null when all the users are accessed
+     * @return false if the error response has been sent
      */
-    @Override
-    protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    private boolean authorize(HttpServletRequest request, HttpServletResponse response, String email)
+            throws IOException {
+        User user = authenticationService.validateToken(getBearerToken(request));
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid Token");
+            return false;
+        }
+        if (!authenticationService.isAuthorized(user, email)) {
+            sendErrorResponse(response, HttpServletResponse.SC_FORBIDDEN, "Access Denied");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * User as returned by the API, without the password
+     */
+    private static final class UserView {
+        private final String email;
+        private final String name;
+
+        private UserView(User user) {
+            this.email = user.getEmail();
+            this.name = user.getName();
+        }
     }
-}
\ No newline at end of file
+}
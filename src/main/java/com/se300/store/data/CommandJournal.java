@@ -0,0 +1,393 @@
+package com.se300.store.data;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * CommandJournal - Append only write-ahead journal of successful mutations.
+ * Every record is length prefixed and protected by a CRC32C checksum. Records are written by a
+ * single background thread that commits everything queued since the last commit with one fsync,
+ * so concurrent writers share the cost of making their records durable (group commit).
+ *
+ * Record layout: [payload length:int][crc32c of payload:int][payload], where the payload is
+ * [operation:byte][argument count:byte] followed by [length:int][UTF-8 bytes] per argument
+ * (length -1 stands for null)
+ *
+ * @author Sergey L. Sundukovskiy, Ph.D.
+ * @version 1.0
+ */
+public class CommandJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    // Records larger than that can only come from a corrupted length prefix
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final Thread writer;
+
+    // Guarded by lock
+    private List<byte[]> pending = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private long durablePosition;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Handler receiving journal records during replay
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+        void apply(byte operation, String[] args);
+    }
+
+    private CommandJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "command-journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Open the journal creating the file if it does not exist. New records are appended after the
+     * records that are already in the file
+     * @param path
+     * @return opened journal
+     * @throws IOException if the file can not be opened
+     */
+    public static CommandJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        CommandJournal journal = new CommandJournal(path, channel);
+        journal.durablePosition = channel.size();
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Get the location of the journal
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Queue the record for the next group commit. The record is not durable until flush returns
+     * @param operation
+     * @param args
+     * @return sequence number of the record
+     */
+    public long append(byte operation, String... args) {
+
+        //Encode outside of the lock so that writers only contend on the queue
+        byte[] record = encode(operation, args);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Command Journal Is Closed");
+            }
+            pending.add(record);
+            pendingAvailable.signal();
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until every record appended so far is durable
+     * @throws IOException if the records could not be written
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            long sequence = appendedSequence;
+            while (durableSequence < sequence && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until every record appended so far is durable and get the size of the journal
+     * @return position right after the last durable record
+     * @throws IOException if the records could not be written
+     */
+    public long position() throws IOException {
+        flush();
+        lock.lock();
+        try {
+            return durablePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replay all the valid records of the journal in the order they were appended
+     * @param handler
+     * @return number of replayed records
+     * @throws IOException if the journal can not be read
+     */
+    public long replay(EntryHandler handler) throws IOException {
+        return replay(handler, 0);
+    }
+
+    /**
+     * Replay the valid records that follow the given position in the order they were appended, records
+     * before it are already covered by a snapshot. A torn or corrupted tail left by a crash is truncated
+     * so that new records follow the last valid one. Must be called before any record is appended
+     * @param handler
+     * @param from position returned by {@link #position()} when the snapshot was taken
+     * @return number of replayed records
+     * @throws IOException if the journal can not be read
+     */
+    public long replay(EntryHandler handler, long from) throws IOException {
+
+        long count = 0;
+        long validSize = Math.min(Math.max(from, 0), channel.size());
+        CRC32C crc = new CRC32C();
+        byte[] payload = new byte[256];
+
+        channel.position(validSize);
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel), READ_BUFFER_SIZE));
+        while (true) {
+            int length;
+            int checksum;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                if (length < 2 || length > MAX_PAYLOAD_SIZE) {
+                    break;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                in.readFully(payload, 0, length);
+            } catch (EOFException e) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            String[] args = decode(payload, length);
+            if (args == null) {
+                break;
+            }
+            handler.apply(payload[0], args);
+            validSize += HEADER_SIZE + length;
+            count++;
+        }
+
+        //Drop whatever follows the last valid record
+        if (channel.size() > validSize) {
+            channel.truncate(validSize);
+        }
+        channel.position(validSize);
+
+        lock.lock();
+        try {
+            durablePosition = validSize;
+        } finally {
+            lock.unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Commit the pending records and close the journal
+     * @throws IOException if the pending records could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Background loop committing all the queued records with a single write and fsync
+     */
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        while (true) {
+            long sequence;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                //Swap the queues so that appenders can keep going while the batch is written
+                List<byte[]> queued = pending;
+                pending = batch;
+                batch = queued;
+                sequence = appendedSequence;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            long position = 0;
+            try {
+                for (byte[] record : batch) {
+                    if (buffer.remaining() < record.length) {
+                        writeFully(buffer);
+                        if (buffer.capacity() < record.length) {
+                            buffer = ByteBuffer.allocateDirect(record.length);
+                        }
+                    }
+                    buffer.put(record);
+                }
+                writeFully(buffer);
+                channel.force(false);
+                position = channel.position();
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.clear();
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    closed = true;
+                } else {
+                    durableSequence = sequence;
+                    durablePosition = position;
+                }
+                committed.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Encode the record including its header
+     */
+    private static byte[] encode(byte operation, String[] args) {
+        if (args.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too Many Journal Arguments");
+        }
+
+        byte[][] encoded = new byte[args.length][];
+        int length = 2;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != null) {
+                encoded[i] = args[i].getBytes(StandardCharsets.UTF_8);
+                length += encoded[i].length;
+            }
+            length += 4;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length);
+        record.position(HEADER_SIZE);
+        record.put(operation);
+        record.put((byte) args.length);
+        for (byte[] arg : encoded) {
+            if (arg == null) {
+                record.putInt(-1);
+            } else {
+                record.putInt(arg.length);
+                record.put(arg);
+            }
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_SIZE, length);
+        record.putInt(0, length);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * Decode the arguments of the payload
+     * @return arguments or null if the payload is malformed
+     */
+    private static String[] decode(byte[] payload, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 0, length);
+        buffer.get();
+        int count = buffer.get();
+        if (count < 0) {
+            return null;
+        }
+
+        String[] args = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < 4) {
+                return null;
+            }
+            int size = buffer.getInt();
+            if (size == -1) {
+                continue;
+            }
+            if (size < 0 || size > buffer.remaining()) {
+                return null;
+            }
+            args[i] = new String(payload, buffer.position(), size, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + size);
+        }
+        return args;
+    }
+}
@@ -6,30 +6,64 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * DataManager - Singleton class for managing data storage.
  * Provides centralized data management for the application.
+ * Data is kept either as plain key value pairs or in typed regions
+ * that support per entry operations.
  *
  * @author Sergey L. Sundukovskiy, Ph.D.
  * @version 1.0
  */
 public class DataManager {
 
-    //TODO: Implement Fake Persistent Data Storage for the application
-
     private static volatile DataManager instance;
 
-    //TODO: Use ConcurrentHashMap for thread-safety
+    private final Map<String, Object> data;
+    private final Map<String, DataRegion<?>> regions;
 
     // Private constructor to prevent instantiation
     private DataManager() {
+        this.data = new ConcurrentHashMap<>();
+        this.regions = new ConcurrentHashMap<>();
     }
 
     public static DataManager getInstance() {
-        return new DataManager();
+        DataManager result = instance;
+        if (result == null) {
+            synchronized (DataManager.class) {
+                result = instance;
+                if (result == null) {
+                    instance = result = new DataManager();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get region by name, creating it if it does not exist
+     *
+     * @throws IllegalArgumentException if region exists with a different value type
+     */
+    @SuppressWarnings("unchecked")
+    public <V> DataRegion<V> region(String name, Class<V> type) {
+        DataRegion<?> region = regions.computeIfAbsent(name, key -> new DataRegion<>(key, type));
+        if (region.getType() != type) {
+            throw new IllegalArgumentException("Region " + name + " holds " + region.getType().getName());
+        }
+        return (DataRegion<V>) region;
+    }
+
+    /**
+     * Check if region exists
+     */
+    public boolean containsRegion(String name) {
+        return regions.containsKey(name);
     }
 
     /**
      * Store data with a given key
      */
     public <T> void put(String key, T value) {
+        data.put(key, value);
     }
 
     /**
@@ -37,39 +71,43 @@ public class DataManager {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(String key) {
-        return null;
+        return (T) data.get(key);
     }
 
     /**
      * Check if key exists
      */
     public boolean containsKey(String key) {
-        return false;
+        return data.containsKey(key);
     }
 
     /**
      * Remove data by key
      */
     public void remove(String key) {
+        data.remove(key);
     }
 
     /**
-     * Clear all data
+     * Clear all data. Regions are emptied but stay registered
+     * so that repositories holding them keep working
      */
     public void clear() {
+        data.clear();
+        regions.values().forEach(DataRegion::clear);
     }
 
     /**
      * Get all keys
      */
     public Iterable<String> keys() {
-        return null;
+        return data.keySet();
     }
 
     /**
      * Get the size of the datastore
      */
     public int size() {
-        return 0;
+        return data.size();
     }
 }
@@ -0,0 +1,205 @@
+package com.se300.store.data;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataRegion - Typed namespace of the DataManager (stores, users, ...).
+ * Every entry is read and written individually, so concurrent writers of
+ * different keys never contend with each other. Every write bumps the
+ * version of the region once the entry is stored, which is used to hand out a cached immutable
+ * snapshot until the next write. Keys are also kept in an ordered index
+ * used for cursor pagination, the index is updated while the entry of the
+ * key is locked so that it never disagrees with the entries.
+ *
+ * @author Sergey L. Sundukovskiy, Ph.D.
+ * @version 1.0
+ */
+public class DataRegion<V> {
+
+    private final String name;
+    private final Class<V> type;
+    private final ConcurrentMap<String, V> entries;
+    private final NavigableSet<String> index;
+    private final AtomicLong version;
+    private volatile Snapshot<V> snapshot;
+
+    DataRegion(String name, Class<V> type) {
+        this.name = name;
+        this.type = type;
+        this.entries = new ConcurrentHashMap<>();
+        this.index = new ConcurrentSkipListSet<>();
+        this.version = new AtomicLong();
+        this.snapshot = new Snapshot<>(0, Map.of());
+    }
+
+    /**
+     * Get the name of the region
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the type of the values stored in the region
+     */
+    public Class<V> getType() {
+        return type;
+    }
+
+    /**
+     * Retrieve value by key
+     */
+    public V get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Store value with a given key
+     *
+     * @return previous value or null
+     */
+    public V put(String key, V value) {
+        V stored = type.cast(value);
+        Object[] previous = new Object[1];
+        entries.compute(key, (k, current) -> {
+            previous[0] = current;
+            index.add(k);
+            return stored;
+        });
+        //Version goes up only once the value is in the map, see snapshot()
+        version.incrementAndGet();
+        return type.cast(previous[0]);
+    }
+
+    /**
+     * Store value only if the key is not present yet
+     *
+     * @return existing value or null if the value was stored
+     */
+    public V putIfAbsent(String key, V value) {
+        V stored = type.cast(value);
+        Object[] existing = new Object[1];
+        entries.compute(key, (k, current) -> {
+            if (current != null) {
+                existing[0] = current;
+                return current;
+            }
+            index.add(k);
+            return stored;
+        });
+        if (existing[0] == null) {
+            version.incrementAndGet();
+        }
+        return type.cast(existing[0]);
+    }
+
+    /**
+     * Remove value by key
+     *
+     * @return removed value or null
+     */
+    public V remove(String key) {
+        Object[] removed = new Object[1];
+        entries.computeIfPresent(key, (k, current) -> {
+            removed[0] = current;
+            index.remove(k);
+            return null;
+        });
+        if (removed[0] != null) {
+            version.incrementAndGet();
+        }
+        return type.cast(removed[0]);
+    }
+
+    /**
+     * Check if key exists
+     */
+    public boolean containsKey(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Live read only view of all the entries
+     */
+    public Map<String, V> asMap() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Immutable snapshot of all the entries. The snapshot is shared by all the readers
+     * and only rebuilt on the first read after a write
+     */
+    public Map<String, V> snapshot() {
+        Snapshot<V> current = snapshot;
+        long currentVersion = version.get();
+        if (current.version == currentVersion) {
+            return current.entries;
+        }
+
+        //Writers bump the version after their entry is stored and entries are copied after the
+        //version is read, so the copy is never older than its version. A write that races with
+        //the copy only makes the next read rebuild the snapshot again
+        Snapshot<V> rebuilt = new Snapshot<>(currentVersion, Map.copyOf(entries));
+        snapshot = rebuilt;
+        return rebuilt.entries;
+    }
+
+    /**
+     * Page of the entries in key order
+     *
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @param limit maximum number of entries
+     * @throws IllegalArgumentException if the cursor or the limit is invalid
+     */
+    public Page<V> page(String cursor, int limit) {
+        return Page.slice(index, entries::get, cursor, limit);
+    }
+
+    /**
+     * Get the version of the region, it changes on every write
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Check if region has no entries
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Remove all the entries
+     */
+    public void clear() {
+        entries.keySet().forEach(this::remove);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Entries of the region as of a given version
+     */
+    private static final class Snapshot<V> {
+        private final long version;
+        private final Map<String, V> entries;
+
+        private Snapshot(long version, Map<String, V> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+}
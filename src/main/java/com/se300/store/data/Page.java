@@ -0,0 +1,103 @@
+package com.se300.store.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Function;
+
+/**
+ * Page - One slice of an ordered listing together with the cursor continuing it.
+ * The cursor is an opaque token holding the key of the last item of the page, so
+ * the next page starts right after it no matter how many entries were added or
+ * removed in between.
+ *
+ * @author Sergey L. Sundukovskiy, Ph.D.
+ * @version 1.0
+ */
+public class Page<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the items of the page
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the cursor of the next page
+     *
+     * @return cursor or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Read a page of at most limit values following the cursor from an ordered key index.
+     * Keys whose value is gone by the time it is looked up are skipped
+     *
+     * @param index ordered keys
+     * @param lookup resolves the value of a key, null if it no longer exists
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @param limit maximum number of items, capped at MAX_LIMIT
+     * @throws IllegalArgumentException if the cursor or the limit is invalid
+     */
+    public static <V> Page<V> slice(NavigableSet<String> index, Function<String, V> lookup,
+                                    String cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid Limit");
+        }
+        limit = Math.min(limit, MAX_LIMIT);
+
+        NavigableSet<String> keys = cursor == null ? index : index.tailSet(decodeCursor(cursor), false);
+        List<V> items = new ArrayList<>(Math.min(limit, 64));
+        String lastKey = null;
+        for (String key : keys) {
+            V value = lookup.apply(key);
+            if (value == null) {
+                continue;
+            }
+            //Only hand out a cursor when there is something left to read
+            if (items.size() == limit) {
+                return new Page<>(items, encodeCursor(lastKey));
+            }
+            items.add(value);
+            lastKey = key;
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Encode the key of the last item into an opaque cursor
+     */
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode the key of the last item from the cursor
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by encodeCursor
+     */
+    public static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid Cursor", e);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.se300.store.model;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aisle class implementation representing aisle in the Store
@@ -18,8 +20,13 @@ public class Aisle {
     private String name;
     private String description;
     private AisleLocation aisleLocation;
-    // Mark collection as transient to avoid circular reference issues during JSON serialization
-    private final transient Map<String, Shelf> shelfMap;
+    // Mark collections as transient to avoid circular reference issues during JSON serialization
+    // There is at most one Shelf per level, so Shelves are indexed by level and the small immutable
+    // id map is replaced on every insert which keeps reads lock free
+    private final transient EnumMap<ShelfLevel, Shelf> levelMap;
+    private transient volatile Map<String, Shelf> shelfMap;
+    // Index of Inventory slots by Product id, updated incrementally as Inventory is added to the Shelves
+    private final transient Map<String, List<Inventory>> productIndex;
 
     /**
      * Constructor for Aisle class
@@ -33,7 +40,9 @@ public class Aisle {
         this.name = name;
         this.description = description;
         this.aisleLocation = aisleLocation;
-        this.shelfMap = new HashMap<>();
+        this.levelMap = new EnumMap<>(ShelfLevel.class);
+        this.shelfMap = Map.of();
+        this.productIndex = new ConcurrentHashMap<>();
     }
 
     /**
@@ -110,24 +119,34 @@ public class Aisle {
      * @return
      * @throws StoreException
      */
-    public Shelf addShelf(String id, String name, ShelfLevel level, String description,
+    public synchronized Shelf addShelf(String id, String name, ShelfLevel level, String description,
                           Temperature temperature) throws StoreException {
-        Shelf shelf = new Shelf(id, name, level, description, temperature );
 
-        //Check to see if Shelf already exists at the given level
-        List<Shelf> shelfList = this.shelfMap.values()
-                .stream()
-                .filter(tempShelf -> level.equals(tempShelf.getLevel()))
-                .collect(Collectors.toList());
+        //Check to see if Shelf level is provided
+        if (level == null){
+            throw new StoreException("Add Shelf", "Shelf Level Is Required");
+        }
 
-        if (!shelfList.isEmpty()){
+        //Check to see if Shelf already exists at the given level
+        if (this.levelMap.containsKey(level)){
             throw new StoreException("Add Shelf", "Shelf Already Exists at This Level");
         }
 
         //If Shelf already exists throw and exception
-        if(this.shelfMap.putIfAbsent(id,shelf) != null)
+        if(this.shelfMap.containsKey(id))
             throw new StoreException("Add Shelf", "Shelf Already Exists");
 
+        Shelf shelf = new Shelf(id, name, level, description, temperature );
+        this.levelMap.put(level, shelf);
+
+        //Publish a new copy of the id map
+        Map<String, Shelf> shelves = new HashMap<>(this.shelfMap);
+        shelves.put(id, shelf);
+        this.shelfMap = Map.copyOf(shelves);
+
+        //Let the Shelf report its Inventory to the Product index
+        shelf.setAisle(this);
+
         return shelf;
     }
 
@@ -141,13 +160,56 @@ public class Aisle {
     }
 
     /**
-     * Method for returning a map of all the Shelves in the Aisle
+     * Get Shelf at the given level of the Aisle
+     * @param level
+     * @return Shelf or null if there is no Shelf at that level
+     */
+    public synchronized Shelf getShelf(ShelfLevel level) {
+        return this.levelMap.get(level);
+    }
+
+    /**
+     * Method for returning an unmodifiable map of all the Shelves in the Aisle
      * @return
      */
     public Map<String, Shelf> getShelfMap(){
         return this.shelfMap;
     }
 
+    /**
+     * Method for returning all the Inventory slots in the Aisle holding the given Product.
+     * Lookup is constant time and does not allocate
+     * @param productId
+     * @return unmodifiable list of Inventory, empty if Product is not in the Aisle
+     */
+    public List<Inventory> getProductInventory(String productId) {
+        return this.productIndex.getOrDefault(productId, List.of());
+    }
+
+    /**
+     * Method for adding Inventory to the Product index of the Aisle
+     * @param inventory
+     */
+    void indexInventory(Inventory inventory) {
+        this.productIndex.merge(inventory.getProductId(), List.of(inventory), (current, added) -> {
+            List<Inventory> merged = new ArrayList<>(current);
+            merged.addAll(added);
+            return List.copyOf(merged);
+        });
+    }
+
+    /**
+     * Method for removing Inventory from the Product index of the Aisle
+     * @param inventory
+     */
+    void unindexInventory(Inventory inventory) {
+        this.productIndex.computeIfPresent(inventory.getProductId(), (productId, current) -> {
+            List<Inventory> remaining = new ArrayList<>(current);
+            remaining.remove(inventory);
+            return remaining.isEmpty() ? null : List.copyOf(remaining);
+        });
+    }
+
     @Override
     public String toString() {
         return "Aisle{" +
@@ -1,4 +1,10 @@
 package com.se300.store.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
 /**
  * Appliance class implementation representing Appliance Device in the Store
  *
@@ -8,6 +14,14 @@ package com.se300.store.model;
  */
 public class Appliance extends Device{
 
+    private static final Logger logger = LoggerFactory.getLogger(Appliance.class);
+
+    private volatile ApplianceState state = ApplianceState.idle;
+    private volatile String activeCommand;
+    private transient volatile long executedCount;
+    // Pending commands, coalesced before they are executed
+    private final transient ApplianceCommandQueue commandQueue;
+
     /**
      * Constructor for Appliance class
      * @param id
@@ -17,6 +31,16 @@ public class Appliance extends Device{
      */
     public Appliance(String id, String name, StoreLocation storeLocation, String type) {
         super(id, name, storeLocation, type);
+
+        //Settings that supersede each other depend on the type of the Appliance
+        ApplianceType applianceType = null;
+        for (ApplianceType candidate : ApplianceType.values()) {
+            if (candidate.name().equals(type)) {
+                applianceType = candidate;
+            }
+        }
+        this.commandQueue = applianceType == null ? new ApplianceCommandQueue(this::executeCommands)
+                : new ApplianceCommandQueue(this::executeCommands, applianceType::getSetting);
     }
 
     /**
@@ -25,15 +49,68 @@ public class Appliance extends Device{
      */
     @Override
     public void processEvent(String event) {
-        System.out.println("Processing Event : " + event);
+        logger.debug("Processing Event : {}", event);
     }
 
     /**
-     * This is a placeholder for the processing commands
+     * Queue the command for execution. Commands identical to a pending one are dropped, commands
+     * changing a setting of the Appliance type supersede the pending command for that setting
      * Notifies observers when a command is issued
      * @param command
      */
     public void processCommand(String command){
-        System.out.println("<<< " + "Processing Command : " + command);
+        if (command == null || command.isBlank()) {
+            return;
+        }
+        commandQueue.submit(command);
+    }
+
+    /**
+     * Execute a batch of coalesced commands, only one thread executes the commands of the Appliance
+     * @param commands
+     */
+    private void executeCommands(List<String> commands) {
+        state = ApplianceState.busy;
+        try {
+            for (String command : commands) {
+                logger.debug("<<< Processing Command : {}", command);
+                activeCommand = command;
+                executedCount++;
+            }
+        } finally {
+            state = ApplianceState.idle;
+        }
+    }
+
+    /**
+     * Getter method for the Appliance state
+     * @return
+     */
+    public ApplianceState getState() {
+        return state;
+    }
+
+    /**
+     * Getter method for the last executed command
+     * @return
+     */
+    public String getActiveCommand() {
+        return activeCommand;
+    }
+
+    /**
+     * Getter method for the number of executed commands
+     * @return
+     */
+    public long getExecutedCount() {
+        return executedCount;
+    }
+
+    /**
+     * Getter method for the command queue of the Appliance
+     * @return
+     */
+    public ApplianceCommandQueue getCommandQueue() {
+        return commandQueue;
     }
 }
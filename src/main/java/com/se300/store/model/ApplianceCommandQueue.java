@@ -0,0 +1,150 @@
+package com.se300.store.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Queue of the commands waiting to be executed by a single Appliance. A command identical to a pending
+ * one is dropped. Commands changing a setting of the Appliance, as told by the setting rule, are coalesced
+ * further: a newer command for the same setting supersedes the pending one and a command repeating the
+ * setting already in effect is dropped. All other commands are distinct instructions and are always executed.
+ * The thread that finds the queue idle drains it in batches, commands submitted meanwhile by other threads
+ * are picked up by that thread
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class ApplianceCommandQueue {
+
+    // Maximum number of commands handed over to the executor at once
+    private static final int DRAIN_BATCH_SIZE = 32;
+
+    private final Consumer<List<String>> executor;
+    private final Function<String, String> settingRule;
+    // Pending commands in submission order together with the setting they change or null
+    private final Map<String, String> pendingCommands = new LinkedHashMap<>();
+    // Pending and last handed over command of every setting
+    private final Map<String, String> pendingSettings = new HashMap<>();
+    private final Map<String, String> activeSettings = new HashMap<>();
+    private boolean draining;
+    private long coalescedCount;
+
+    /**
+     * Constructor for the ApplianceCommandQueue class coalescing only identical commands
+     * @param executor executes a batch of coalesced commands in order
+     */
+    public ApplianceCommandQueue(Consumer<List<String>> executor) {
+        this(executor, command -> null);
+    }
+
+    /**
+     * Constructor for the ApplianceCommandQueue class
+     * @param executor executes a batch of coalesced commands in order
+     * @param settingRule gets the setting changed by a command or null if the command is a distinct instruction
+     */
+    public ApplianceCommandQueue(Consumer<List<String>> executor, Function<String, String> settingRule) {
+        this.executor = executor;
+        this.settingRule = settingRule;
+    }
+
+    /**
+     * Queue the command and drain the queue unless another thread is already draining it
+     * @param command
+     * @return false if the command is redundant, i.e. identical to a pending one or repeating a setting in effect
+     */
+    public boolean submit(String command) {
+        String setting = settingRule.apply(command);
+        boolean queued;
+        synchronized (pendingCommands) {
+            if (pendingCommands.containsKey(command)) {
+                coalescedCount++;
+                queued = false;
+            } else if (setting == null) {
+                pendingCommands.put(command, null);
+                queued = true;
+            } else {
+                String pending = pendingSettings.get(setting);
+                if (pending == null && command.equals(activeSettings.get(setting))) {
+                    coalescedCount++;
+                    queued = false;
+                } else {
+                    //Newer command for the same setting supersedes the pending one and moves to the end
+                    if (pending != null) {
+                        pendingCommands.remove(pending);
+                        coalescedCount++;
+                    }
+                    pendingSettings.put(setting, command);
+                    pendingCommands.put(command, setting);
+                    queued = true;
+                }
+            }
+            if (draining) {
+                return queued;
+            }
+            draining = true;
+        }
+        drain();
+        return queued;
+    }
+
+    /**
+     * Get the number of commands waiting to be executed
+     */
+    public int size() {
+        synchronized (pendingCommands) {
+            return pendingCommands.size();
+        }
+    }
+
+    /**
+     * Get the number of commands dropped or superseded instead of being executed
+     */
+    public long getCoalescedCount() {
+        synchronized (pendingCommands) {
+            return coalescedCount;
+        }
+    }
+
+    /**
+     * Hand the pending commands over to the executor until the queue is empty
+     */
+    private void drain() {
+        List<String> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        try {
+            while (true) {
+                synchronized (pendingCommands) {
+                    Iterator<Map.Entry<String, String>> iterator = pendingCommands.entrySet().iterator();
+                    while (batch.size() < DRAIN_BATCH_SIZE && iterator.hasNext()) {
+                        Map.Entry<String, String> entry = iterator.next();
+                        batch.add(entry.getKey());
+                        if (entry.getValue() != null) {
+                            //Setting is in effect once its command is handed over
+                            pendingSettings.remove(entry.getValue());
+                            activeSettings.put(entry.getValue(), entry.getKey());
+                        }
+                        iterator.remove();
+                    }
+                    if (batch.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                }
+                executor.accept(batch);
+                batch.clear();
+            }
+        } catch (RuntimeException | Error e) {
+            //Let the next submitting thread resume draining
+            synchronized (pendingCommands) {
+                draining = false;
+            }
+            throw e;
+        }
+    }
+}
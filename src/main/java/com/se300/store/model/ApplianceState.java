@@ -0,0 +1,13 @@
+package com.se300.store.model;
+
+/**
+ * Enumeration representing Appliance state
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public enum ApplianceState {
+    idle,
+    busy
+}
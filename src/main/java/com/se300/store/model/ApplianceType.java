@@ -1,5 +1,8 @@
 package com.se300.store.model;
 
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Enumeration representing type of Appliances
  *
@@ -8,7 +11,25 @@ package com.se300.store.model;
  * @since   2025-09-25
  */
 public enum ApplianceType {
-    speaker,
-    robot,
-    turnstile
+    speaker(Map.of("VOLUME", "VOLUME")),
+    robot(Map.of()),
+    turnstile(Map.of("OPEN", "GATE", "CLOSE", "GATE"));
+
+    // Setting changed by the command of the given name, a newer command for the same setting supersedes the pending one
+    private final Map<String, String> settings;
+
+    ApplianceType(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Get the setting of the Appliance changed by the command
+     * @param command
+     * @return setting or null if the command is a distinct instruction that is never superseded
+     */
+    public String getSetting(String command) {
+        int end = command.indexOf(' ');
+        String name = end < 0 ? command : command.substring(0, end);
+        return settings.get(name.toUpperCase(Locale.ROOT));
+    }
 }
@@ -1,7 +1,9 @@
 package com.se300.store.model;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Basket class implementation representing Customer basket
@@ -12,6 +14,8 @@ import java.util.stream.Collectors;
  */
 public class Basket {
 
+    private static final Logger logger = LoggerFactory.getLogger(Basket.class);
+
     private String id;
     private final Map<String, Integer> productMap;
     // Mark customer and store as transient to avoid circular references
@@ -59,6 +63,11 @@ public class Basket {
             throw new StoreException("Add Product", "Guests Are Not Allowed to Shop");
         }
 
+        //Make sure that the customer is taking at least one unit of the product
+        if(count <= 0){
+            throw new StoreException("Add Product", "Count Must Be Greater Than 0");
+        }
+
         //Get location of the customer associated with this basket
         StoreLocation location = this.customer.getStoreLocation();
         //Get the aisle where the customer was last seen
@@ -69,37 +78,32 @@ public class Basket {
             throw new StoreException("Add Product", "Aisle Does Not Exist");
         }
 
-        //Get all inventory items from the shelves in the aisle where customer was last seen
-        List<Inventory> inventoryList = aisle.getShelfMap().values()
-                .stream()
-                .flatMap(shelf -> shelf.getInventoryMap().values().
-                        stream())
-                .filter(inventory -> productId.equals(inventory.getProductId()))
-                        .collect(Collectors.toList());
+        //Get all inventory items for the product from the shelves in the aisle where customer was last seen
+        List<Inventory> inventoryList = aisle.getProductInventory(productId);
 
         //If inventory list is empty that means product is not available to be put in the basket
         if(inventoryList.isEmpty()){
-            System.out.println("\u001B[31m" + "Error : " + customer + "\u001B[0m");
+            logger.debug("Error : {}", customer);
             throw new StoreException("Add Product", "Customer Is Not Near Product");
         }
 
         //If inventory list is larger than one that means that there are multiple product are available
         //where customer was last seen
         if(inventoryList.size() > 1){
-            System.out.println("\u001B[31m" + "Error : " + inventoryList + "\u001B[0m");
+            logger.debug("Error : {}", inventoryList);
             throw new StoreException("Add Product", "There Are Several Products In the Aisle");
         }
 
-        //If the count of the product on the shelf is smaller than the customer is trying to buy throw and exception
+        //Atomically decrement product on the shelf, if the count of the product on the shelf is smaller
+        //than the customer is trying to buy throw and exception
         Inventory inventory = inventoryList.get(0);
-        if((inventory.getCount() - count) < 0){
-            System.out.println("\u001B[31m" + "Error : " + inventory + "\u001B[0m");
+        if(!inventory.reserve(count)){
+            logger.debug("Error : {}", inventory);
             throw new StoreException("Add Product", "There Is Not Enough Inventory on the Shelf");
         }
 
-        //Put the product in the basket and decrement product on the shelf
+        //Put the product in the basket
         this.productMap.merge(productId, count, Integer::sum);
-        inventory.setCount(inventory.getCount() - count);
     }
 
     /**
@@ -117,6 +121,8 @@ public class Basket {
         Integer tempCount = this.productMap.get(productId);
         if(tempCount == null){
             throw new StoreException("Remove Product", "Product Does Not Exist");
+        } else if (count <= 0){
+            throw new StoreException("Remove Product", "Count Must Be Greater Than 0");
         } else if (count > tempCount){
             throw new StoreException("Remove Product", "Trying To Remove More Quantity Than Exists");
         }
@@ -131,37 +137,32 @@ public class Basket {
             throw new StoreException("Remove Product", "Aisle Does Not Exist");
         }
 
-        //Get all inventory items from the shelves in the aisle where customer was last seen
-        List<Inventory> inventoryList = aisle.getShelfMap().values()
-                .stream()
-                .flatMap(shelf -> shelf.getInventoryMap().values().
-                        stream())
-                .filter(inventory -> productId.equals(inventory.getProductId()))
-                .collect(Collectors.toList());
+        //Get all inventory items for the product from the shelves in the aisle where customer was last seen
+        List<Inventory> inventoryList = aisle.getProductInventory(productId);
 
         //If inventory list is empty that means product is not available to be put on the shelf
         if(inventoryList.isEmpty()){
-            System.out.println("\u001B[31m" + "Error: " + customer + "\u001B[0m");
+            logger.debug("Error : {}", customer);
             throw new StoreException("Remove Product", "Customer Is Not Near Product");
         }
 
         //If inventory list is larger than one that means that there are multiple product slots are available
         //on the shelves where customer was last seen
         if(inventoryList.size() > 1){
-            System.out.println("\u001B[31m" + "Error : " + inventoryList + "\u001B[0m");
+            logger.debug("Error : {}", inventoryList);
             throw new StoreException("Remove Product", "There Are Several Products In the Aisle");
         }
 
-        //If product capacity on the shelf is smaller than what the customer is trying to put back throw and exception
+        //Atomically increment product on the shelf, if product capacity on the shelf is smaller than
+        //what the customer is trying to put back throw and exception
         Inventory inventory = inventoryList.get(0);
-        if((inventory.getCount() + count) > inventory.getCapacity()){
-            System.out.println("\u001B[31m" + "Error : " + inventory + "\u001B[0m");
+        if(!inventory.release(count)){
+            logger.debug("Error : {}", inventory);
             throw new StoreException("Remove Product", "There Is Not Enough Capacity on the Shelf");
         }
 
-        //Remove the product in the basket and increment product on the shelf
+        //Remove the product in the basket
         this.productMap.merge(productId, count, (a, b) -> a - b);
-        inventory.setCount(inventory.getCount() + count);
 
         //if product count in the basket is 0 remove it from the basket completely
         tempCount = this.productMap.get(productId);
@@ -195,6 +196,24 @@ public class Basket {
         this.customer = null;
     }
 
+    /**
+     * Read only view of the Products in the Basket and their counts
+     * @return
+     */
+    synchronized public Map<String, Integer> getProductMap() {
+        return Collections.unmodifiableMap(new HashMap<>(this.productMap));
+    }
+
+    /**
+     * Put Product back into the Basket while restoring a snapshot. Inventory is not reserved
+     * since the restored Inventory counts already account for the Products in the Baskets
+     * @param productId
+     * @param count
+     */
+    synchronized public void restoreProduct(String productId, int count) {
+        this.productMap.put(productId, count);
+    }
+
     /**
      * Setter method for the Customer to establish a connection between Basket and the Store
      * @param store
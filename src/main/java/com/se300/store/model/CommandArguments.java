@@ -0,0 +1,123 @@
+package com.se300.store.model;
+
+import java.util.List;
+
+/**
+ * CommandArguments class implementation binding DSL tokens to typed arguments. Missing or
+ * malformed arguments are reported as CommandException instead of runtime exceptions
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+final class CommandArguments {
+
+    private final String command;
+    private final List<String> tokens;
+
+    /**
+     * Constructor for CommandArguments class
+     * @param command original command used for error reporting
+     * @param tokens
+     */
+    CommandArguments(String command, List<String> tokens) {
+        this.command = command;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Get token as String
+     * @param index
+     * @return
+     * @throws CommandException if token is missing
+     */
+    String string(int index) throws CommandException {
+        if (index >= tokens.size()) {
+            throw error("Missing Argument At Position " + index);
+        }
+        return tokens.get(index);
+    }
+
+    /**
+     * Get token as int
+     * @param index
+     * @return
+     * @throws CommandException if token is missing or is not a number
+     */
+    int integer(int index) throws CommandException {
+        String token = string(index);
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw error("Invalid Number " + token);
+        }
+    }
+
+    /**
+     * Get token as double
+     * @param index
+     * @return
+     * @throws CommandException if token is missing or is not a number
+     */
+    double decimal(int index) throws CommandException {
+        String token = string(index);
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw error("Invalid Number " + token);
+        }
+    }
+
+    /**
+     * Get token as enum constant
+     * @param index
+     * @param type
+     * @return
+     * @throws CommandException if token is missing or is not a constant of the enum
+     */
+    <E extends Enum<E>> E enumValue(int index, Class<E> type) throws CommandException {
+        String token = string(index);
+        try {
+            return Enum.valueOf(type, token);
+        } catch (IllegalArgumentException e) {
+            throw error("Invalid " + type.getSimpleName() + " " + token);
+        }
+    }
+
+    /**
+     * Get token as store_id:aisle_number[:shelf_id] location
+     * @param index
+     * @param parts minimum number of location parts
+     * @return location parts
+     * @throws CommandException if token is missing or has fewer parts
+     */
+    String[] location(int index, int parts) throws CommandException {
+        String token = string(index);
+        String[] location = token.split(":");
+        if (location.length < parts) {
+            throw error("Invalid Location " + token);
+        }
+        return location;
+    }
+
+    /**
+     * Join tokens from the given index to the given index exclusive with single spaces
+     * @param from
+     * @param to
+     * @return
+     * @throws CommandException if any of the tokens is missing
+     */
+    String join(int from, int to) throws CommandException {
+        string(to - 1);
+        return String.join(" ", tokens.subList(from, to));
+    }
+
+    /**
+     * Create CommandException for this command
+     * @param reason
+     * @return
+     */
+    CommandException error(String reason) {
+        return new CommandException(command.trim().replaceAll(" +", " "), reason);
+    }
+}
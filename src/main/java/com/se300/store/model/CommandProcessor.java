@@ -1,16 +1,16 @@
 package com.se300.store.model;
 
 import com.se300.store.service.StoreService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * CommandProcessor class implementation for processing DSL commands
@@ -21,181 +21,177 @@ import java.util.regex.Pattern;
  */
 public class CommandProcessor implements CommandAPI  {
 
-    StoreService storeService = new StoreService();
-
-    public void processCommand(String commandBefore) throws CommandException, StoreException {
-
-        List<String> tokens = new ArrayList<>();
-        //Split the line into tokens between spaces and quotes
-        Matcher matcher = Pattern.compile("([^\"]\\S*|\".+?\")\\s*").matcher(commandBefore);
-        while (matcher.find())
-            tokens.add(matcher.group(1).replace("\"", ""));
-
-        System.out.println(">>> Processing DSL : " + commandBefore);
-
-        String command = commandBefore.trim().replaceAll(" +", " ");
-
-        if (command.toLowerCase().contains("define store")){
-            storeService.provisionStore(tokens.get(2), tokens.get(4), tokens.get(6), null);
-        } else if(command.toLowerCase().contains("show store")){
-            System.out.println("<<< " + storeService.showStore(tokens.get(2),null));
-        } else if(command.toLowerCase().contains("define aisle")){
-
-            String[] location = tokens.get(2).split(":");
-            storeService.provisionAisle(location[0],location[1], tokens.get(4), tokens.get(6),
-                    AisleLocation.valueOf(tokens.get(8)),null);
-
-        } else if(command.toLowerCase().contains("show aisle")){
-
-            String[] location = tokens.get(2).split(":");
-            System.out.println("<<< " + storeService.showAisle(location[0],location[1],null));
-
-        } else if(command.toLowerCase().contains("define shelf")) {
-
-            String[] location = tokens.get(2).split(":");
-            storeService.provisionShelf(location[0],location[1],location[2], tokens.get(4), ShelfLevel.valueOf(tokens.get(6)),
-                    tokens.get(8), Temperature.valueOf(tokens.get(10)), null  );
-
-        } else if(command.toLowerCase().contains("show shelf")){
-
-            String[] location = tokens.get(2).split(":");
-            System.out.println ("<<< " + storeService.showShelf(location[0], location[1], location[2], null));
-
-        } else if(command.toLowerCase().contains("define product")) {
-
-            storeService.provisionProduct(tokens.get(2), tokens.get(4), tokens.get(6),
-                    tokens.get(8), tokens.get(10), Double.parseDouble(tokens.get(12)),
-                    Temperature.valueOf(tokens.get(14)),null);
+    private static final Logger logger = LoggerFactory.getLogger(CommandProcessor.class);
 
-        } else if(command.toLowerCase().contains("show product")) {
+    // Results of the commands are user facing output, logback writes them to stdout synchronously
+    private static final Logger output = LoggerFactory.getLogger("com.se300.store.output");
 
-            Product product = storeService.showProduct(tokens.get(2), null);
-            System.out.println("<<< " + product);
-
-        } else if(command.toLowerCase().contains("define inventory")) {
-
-            String[] location = tokens.get(4).split(":");
-
-            storeService.provisionInventory(tokens.get(2), location[0], location[1],
-                    location[2], Integer.parseInt(tokens.get(6)), Integer.parseInt(tokens.get(8)),
-                    tokens.get(12), InventoryType.valueOf(tokens.get(10)), null);
+    StoreService storeService = new StoreService();
 
-        } else if(command.toLowerCase().contains("show inventory")) {
+    // Handlers keyed by the lower case command verb, either a single word or the first two words
+    private final Map<String, CommandHandler> handlers = createHandlers();
 
-            System.out.println("<<< " + storeService.showInventory(tokens.get(2), null));
+    /**
+     * Handler of a single DSL command
+     */
+    @FunctionalInterface
+    private interface CommandHandler {
+        void handle(CommandArguments args) throws CommandException, StoreException;
+    }
 
-        } else if(command.toLowerCase().contains("update inventory")) {
+    public void processCommand(String commandBefore) throws CommandException, StoreException {
 
-            Inventory inventory = storeService.updateInventory(tokens.get(2),Integer.parseInt(tokens.get(4)), null );
-            System.out.println(inventory);
+        //Split the line into tokens between spaces and quotes
+        List<String> tokens = CommandTokenizer.tokenize(commandBefore);
 
-        } else if(command.toLowerCase().contains("define customer")){
+        logger.debug(">>> Processing DSL : {}", commandBefore);
 
-            storeService.provisionCustomer(tokens.get(2), tokens.get(4), tokens.get(6),
-                    CustomerType.valueOf(tokens.get(8)), tokens.get(10), tokens.get(12), null);
+        CommandArguments args = new CommandArguments(commandBefore, tokens);
+        CommandHandler handler = findHandler(tokens);
+        if (handler == null) {
+            throw args.error("Unrecognized Command");
+        }
+        handler.handle(args);
+    }
 
-        } else if(command.toLowerCase().contains("update customer")){
+    /**
+     * Find handler by the single word verb first and by the two word verb second
+     * @param tokens
+     * @return handler or null if command is not recognized
+     */
+    private CommandHandler findHandler(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        String verb = tokens.get(0).toLowerCase(Locale.ROOT);
+        CommandHandler handler = handlers.get(verb);
+        if (handler == null && tokens.size() > 1) {
+            handler = handlers.get(verb + " " + tokens.get(1).toLowerCase(Locale.ROOT));
+        }
+        return handler;
+    }
 
-            String[] location = tokens.get(4).split(":");
-            Customer customer = storeService.updateCustomer(tokens.get(2), location[0], location[1], null);
+    /**
+     * Build the dispatch table of all the supported commands
+     */
+    private Map<String, CommandHandler> createHandlers() {
 
-            System.out.println("<<< " + customer);
+        Map<String, CommandHandler> handlers = new HashMap<>();
 
-        } else if(command.toLowerCase().contains("show customer")){
+        handlers.put("define store", args ->
+                storeService.provisionStore(args.string(2), args.string(4), args.string(6), null));
 
-            System.out.println(storeService.showCustomer(tokens.get(2),null));
+        handlers.put("show store", args ->
+                output.info("<<< {}", storeService.showStore(args.string(2), null)));
 
-        } else if(command.toLowerCase().contains("define basket")){
+        handlers.put("define aisle", args -> {
+            String[] location = args.location(2, 2);
+            storeService.provisionAisle(location[0], location[1], args.string(4), args.string(6),
+                    args.enumValue(8, AisleLocation.class), null);
+        });
 
-            storeService.provisionBasket(tokens.get(2), null);
+        handlers.put("show aisle", args -> {
+            String[] location = args.location(2, 2);
+            output.info("<<< {}", storeService.showAisle(location[0], location[1], null));
+        });
 
-        } else if(command.toLowerCase().contains("assign basket")){
+        handlers.put("define shelf", args -> {
+            String[] location = args.location(2, 3);
+            storeService.provisionShelf(location[0], location[1], location[2], args.string(4),
+                    args.enumValue(6, ShelfLevel.class), args.string(8),
+                    args.enumValue(10, Temperature.class), null);
+        });
 
-            storeService.assignCustomerBasket(tokens.get(4), tokens.get(2), null);
+        handlers.put("show shelf", args -> {
+            String[] location = args.location(2, 3);
+            output.info("<<< {}", storeService.showShelf(location[0], location[1], location[2], null));
+        });
 
-        } else if(command.toLowerCase().contains("get_customer_basket")){
+        handlers.put("define product", args ->
+                storeService.provisionProduct(args.string(2), args.string(4), args.string(6),
+                        args.string(8), args.string(10), args.decimal(12),
+                        args.enumValue(14, Temperature.class), null));
 
-            Basket basket = storeService.getCustomerBasket(tokens.get(1), null);
-            System.out.println("<<< " + basket);
+        handlers.put("show product", args ->
+                output.info("<<< {}", storeService.showProduct(args.string(2), null)));
 
-        } else if (command.toLowerCase().contains("add_basket_item")){
+        handlers.put("define inventory", args -> {
+            String[] location = args.location(4, 3);
+            storeService.provisionInventory(args.string(2), location[0], location[1], location[2],
+                    args.integer(6), args.integer(8), args.string(12),
+                    args.enumValue(10, InventoryType.class), null);
+        });
 
-            Basket basket = storeService.addBasketProduct(tokens.get(1), tokens.get(3),
-                    Integer.parseInt(tokens.get(5)), null);
-            System.out.println("<<< " + basket);
+        handlers.put("show inventory", args ->
+                output.info("<<< {}", storeService.showInventory(args.string(2), null)));
 
-        } else if (command.toLowerCase().contains("remove_basket_item")) {
+        handlers.put("update inventory", args ->
+                output.info("<<< {}", storeService.updateInventory(args.string(2), args.integer(4), null)));
 
-            Basket basket = storeService.removeBasketProduct(tokens.get(1), tokens.get(3),
-                    Integer.parseInt(tokens.get(5)), null);
-            System.out.println(basket);
+        handlers.put("define customer", args ->
+                storeService.provisionCustomer(args.string(2), args.string(4), args.string(6),
+                        args.enumValue(8, CustomerType.class), args.string(10), args.string(12), null));
 
-        } else if (command.toLowerCase().contains("clear_basket")){
+        handlers.put("update customer", args -> {
+            String[] location = args.location(4, 2);
+            output.info("<<< {}", storeService.updateCustomer(args.string(2), location[0], location[1], null));
+        });
 
-            Basket basket = storeService.clearBasket(tokens.get(1),null);
-            System.out.println("<<< " + basket);
+        handlers.put("show customer", args ->
+                output.info("<<< {}", storeService.showCustomer(args.string(2), null)));
 
-        } else if (command.toLowerCase().contains("show basket_items")){
+        handlers.put("define basket", args ->
+                storeService.provisionBasket(args.string(2), null));
 
-            Basket basket = storeService.showBasket(tokens.get(2),null);
-            System.out.println("<<< " + basket);
+        handlers.put("assign basket", args ->
+                storeService.assignCustomerBasket(args.string(4), args.string(2), null));
 
-        } else if (command.toLowerCase().contains("define device")){
+        handlers.put("get_customer_basket", args ->
+                output.info("<<< {}", storeService.getCustomerBasket(args.string(1), null)));
 
-            String[] location = tokens.get(8).split(":");
-            storeService.provisionDevice(tokens.get(2), tokens.get(4),
-                    tokens.get(6), location[0], location[1], null);
+        handlers.put("add_basket_item", args ->
+                output.info("<<< {}", storeService.addBasketProduct(args.string(1), args.string(3),
+                        args.integer(5), null)));
 
-        } else if (command.toLowerCase().contains("show device")){
+        handlers.put("remove_basket_item", args ->
+                output.info("<<< {}", storeService.removeBasketProduct(args.string(1), args.string(3),
+                        args.integer(5), null)));
 
-            System.out.println("<<< " + storeService.showDevice(tokens.get(2),null));
+        handlers.put("clear_basket", args ->
+                output.info("<<< {}", storeService.clearBasket(args.string(1), null)));
 
-        } else if (command.toLowerCase().contains("create event")){
+        handlers.put("show basket_items", args ->
+                output.info("<<< {}", storeService.showBasket(args.string(2), null)));
 
-            storeService.raiseEvent(tokens.get(2), tokens.get(4) + " " + tokens.get(5),null);
+        handlers.put("define device", args -> {
+            String[] location = args.location(8, 2);
+            storeService.provisionDevice(args.string(2), args.string(4), args.string(6),
+                    location[0], location[1], null);
+        });
 
-        } else if (command.toLowerCase().contains("create_event")){
+        handlers.put("show device", args ->
+                output.info("<<< {}", storeService.showDevice(args.string(2), null)));
 
-            storeService.raiseEvent(tokens.get(1), tokens.get(3) + " " + tokens.get(4) + " " + tokens.get(5),null);
+        handlers.put("create event", args ->
+                storeService.raiseEvent(args.string(2), args.join(4, 6), null));
 
-        } else if (command.toLowerCase().contains("create command")){
+        handlers.put("create_event", args ->
+                storeService.raiseEvent(args.string(1), args.join(3, 6), null));
 
-            storeService.issueCommand(tokens.get(2), tokens.get(4) + " " + tokens.get(5),null);
+        handlers.put("create command", args ->
+                storeService.issueCommand(args.string(2), args.join(4, 6), null));
 
-        } else {
-            throw new CommandException(command, "Unrecognized Command");
-        }
+        return handlers;
     }
 
     public void processCommandFile(String fileName) {
         Path path = FileSystems.getDefault().getPath(Path.of(fileName).toAbsolutePath().toString());
-        List<String> tokens = new ArrayList<>();
 
-        //Process all the lines in the file
-        try (var stream = Files.lines(path)) {
-            tokens = stream
-                    .toList();
+        //Stream the file line by line processing commands of different Stores in parallel
+        try {
+            new CommandScriptExecutor(this).execute(path);
         } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        Iterator<String> iterator = tokens.iterator();
-
-        //Filter out any empty lines and lines that start with #
-        for (int i = 0; iterator.hasNext(); i ++) {
-            String temp = iterator.next();
-            if(!temp.trim().startsWith("#") && !temp.trim().isEmpty()) {
-                try {
-                    processCommand(temp);
-                } catch (CommandException e) {
-                    e.setLineNumber(i + 1);
-                    System.out.println("\u001B[31m" + "Failed due to: " + e.getReason() + " for Command: " + e.getCommand()
-                            + " On Line Number: " + e.getLineNumber() + "\u001B[0m");
-                } catch (StoreException e) {
-                    System.out.println("\u001B[31m" + "Failed due to: " + e.getReason() + " for Command: " + e.getAction() + "\u001B[0m");
-                }
-            }
+            logger.error("Failed to read command file {}", fileName, e);
         }
-
     }
 }
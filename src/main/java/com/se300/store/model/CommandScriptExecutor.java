@@ -0,0 +1,182 @@
+package com.se300.store.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CommandScriptExecutor class implementation for executing DSL scripts. The script is read
+ * line by line, commands that belong to a single Store are executed in order on a per Store
+ * chain while different Stores run in parallel. Commands that are not bound to a single Store
+ * (products, customers, baskets, inventory updates and device events) act as barriers: they run
+ * once every command before them has finished
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class CommandScriptExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandScriptExecutor.class);
+
+    // Maximum number of commands that have been read but not executed yet
+    private static final int MAX_PENDING_COMMANDS = 1024;
+
+    private final CommandAPI commandAPI;
+    private final int parallelism;
+
+    /**
+     * Constructor for CommandScriptExecutor class using one thread per available processor
+     * @param commandAPI
+     */
+    public CommandScriptExecutor(CommandAPI commandAPI) {
+        this(commandAPI, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for CommandScriptExecutor class
+     * @param commandAPI
+     * @param parallelism maximum number of Stores processed at the same time
+     */
+    public CommandScriptExecutor(CommandAPI commandAPI, int parallelism) {
+        this.commandAPI = commandAPI;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Execute all the commands in the script. Empty lines and lines that start with # are skipped
+     * @param path
+     * @throws IOException if the script can not be read
+     */
+    public void execute(Path path) throws IOException {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "command-script-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore pending = new Semaphore(MAX_PENDING_COMMANDS);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Map<String, CompletableFuture<Void>> storeChains = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.startsWith("#") || trimmed.isEmpty()) {
+                    continue;
+                }
+
+                String storeId = getStoreId(trimmed);
+                if (storeId == null) {
+                    //Command spans several Stores, wait for everything before it and run it inline
+                    awaitAll(storeChains);
+                    executeCommand(line, lineNumber, failure);
+                } else {
+                    String command = line;
+                    int commandLineNumber = lineNumber;
+                    pending.acquireUninterruptibly();
+                    Runnable task = () -> {
+                        try {
+                            executeCommand(command, commandLineNumber, failure);
+                        } finally {
+                            pending.release();
+                        }
+                    };
+                    storeChains.compute(storeId, (key, chain) -> chain == null
+                            ? CompletableFuture.runAsync(task, executor)
+                            : chain.thenRunAsync(task, executor));
+                }
+            }
+            awaitAll(storeChains);
+        } finally {
+            executor.shutdown();
+        }
+
+        //Unexpected failures abort the script the same way they would when running serially
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Execute single command reporting DSL and Store errors
+     */
+    private void executeCommand(String command, int lineNumber, AtomicReference<RuntimeException> failure) {
+        //Script is aborted, commands already queued on the Store chains are skipped
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            commandAPI.processCommand(command);
+        } catch (CommandException e) {
+            e.setLineNumber(lineNumber);
+            logger.warn("Failed due to: {} for Command: {} On Line Number: {}", e.getReason(), e.getCommand(),
+                    e.getLineNumber());
+        } catch (StoreException e) {
+            logger.warn("Failed due to: {} for Command: {}", e.getReason(), e.getAction());
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Wait for all the Store chains to finish
+     */
+    private static void awaitAll(Map<String, CompletableFuture<Void>> storeChains) {
+        if (!storeChains.isEmpty()) {
+            CompletableFuture.allOf(storeChains.values().toArray(new CompletableFuture[0])).join();
+            storeChains.clear();
+        }
+    }
+
+    /**
+     * Get id of the Store the command is bound to
+     * @param command trimmed command
+     * @return Store id or null if command is not bound to a single Store
+     */
+    static String getStoreId(String command) {
+
+        List<String> tokens = CommandTokenizer.tokenize(command);
+        if (tokens.size() < 3) {
+            return null;
+        }
+
+        String verb = tokens.get(0).toLowerCase(Locale.ROOT);
+        String noun = tokens.get(1).toLowerCase(Locale.ROOT);
+        boolean define = verb.equals("define");
+
+        if ((define || verb.equals("show")) && (noun.equals("store") || noun.equals("aisle") || noun.equals("shelf"))) {
+            return getStorePart(tokens.get(2));
+        } else if (define && (noun.equals("inventory") || noun.equals("device"))) {
+            for (int i = 3; i < tokens.size() - 1; i++) {
+                if (tokens.get(i).equalsIgnoreCase("location")) {
+                    return getStorePart(tokens.get(i + 1));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the Store part of the store_id:aisle_number:shelf_id location
+     */
+    private static String getStorePart(String location) {
+        int separator = location.indexOf(':');
+        return separator < 0 ? location : location.substring(0, separator);
+    }
+}
@@ -0,0 +1,61 @@
+package com.se300.store.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CommandTokenizer class implementation for splitting DSL commands into tokens in a single pass.
+ * Tokens are separated by whitespace, text between double quotes is a single token and the
+ * quotes themselves are dropped
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+final class CommandTokenizer {
+
+    private CommandTokenizer() {
+    }
+
+    /**
+     * Split command into tokens
+     * @param command
+     * @return list of tokens, empty if the command is blank
+     */
+    static List<String> tokenize(String command) {
+
+        List<String> tokens = new ArrayList<>(16);
+        StringBuilder token = new StringBuilder();
+        int length = command.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = command.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            token.setLength(0);
+            if (c == '"') {
+                //Quoted token runs until the closing quote or the end of the command
+                int end = command.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = length;
+                }
+                token.append(command, i + 1, end);
+                i = end + 1;
+            } else {
+                //Plain token runs until the next whitespace, stray quotes are dropped
+                while (i < length && !Character.isWhitespace(c = command.charAt(i))) {
+                    if (c != '"') {
+                        token.append(c);
+                    }
+                    i++;
+                }
+            }
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
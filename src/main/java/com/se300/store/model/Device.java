@@ -101,6 +101,15 @@ public abstract class Device {
      */
     public abstract void processEvent(String event);
 
+    /**
+     * Process event that happened at the given time, used when events are processed asynchronously
+     * @param event
+     * @param timestamp epoch milliseconds of the event
+     */
+    public void processEvent(String event, long timestamp) {
+        processEvent(event);
+    }
+
     @Override
     public String toString() {
         return "Device{" +
@@ -1,5 +1,7 @@
 package com.se300.store.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Inventory class implementation representing inventory on the shelf of the store
  *
@@ -11,10 +13,13 @@ public class Inventory {
 
     private String id;
     private InventoryLocation inventoryLocation;
-    private int capacity;
-    private int count;
+    private volatile int capacity;
+    // Count is shared by all the Baskets in the Store and is only changed with compare-and-set
+    private final AtomicInteger count;
     private String productId;
     private InventoryType type;
+    // Aisle whose Product index holds the Inventory, null while the Inventory is not on a Shelf
+    private transient Aisle aisle;
 
     /**
      * Constructor for the Inventory class
@@ -29,7 +34,7 @@ public class Inventory {
         this.id = id;
         this.inventoryLocation = inventoryLocation;
         this.capacity = capacity;
-        this.count = count;
+        this.count = new AtomicInteger(count);
         this.productId = productId;
         this.type = type;
     }
@@ -87,7 +92,7 @@ public class Inventory {
      * @return
      */
     public int getCount() {
-        return count;
+        return count.get();
     }
 
     /**
@@ -95,7 +100,7 @@ public class Inventory {
      * @param count
      */
     public void setCount(int count) {
-        this.count = count;
+        this.count.set(count);
     }
 
     /**
@@ -107,28 +112,90 @@ public class Inventory {
     }
 
     /**
-     * Setter method for the Product associated with the Inventory item
+     * Setter method for the Product associated with the Inventory item.
+     * Moves the Inventory to the new Product in the Product index of its Aisle
      * @param productId
      */
-    public void setProductId(String productId) {
+    public synchronized void setProductId(String productId) {
+        Aisle indexed = this.aisle;
+        if (indexed != null)
+            indexed.unindexInventory(this);
         this.productId = productId;
+        if (indexed != null)
+            indexed.indexInventory(this);
+    }
+
+    /**
+     * Method for moving Inventory to the Product index of the given Aisle
+     * @param aisle Aisle of the Shelf holding the Inventory or null once it is off the Shelf
+     */
+    synchronized void setAisle(Aisle aisle) {
+        if (this.aisle != null)
+            this.aisle.unindexInventory(this);
+        this.aisle = aisle;
+        if (aisle != null)
+            aisle.indexInventory(this);
     }
 
     /**
      * Method for updating (incrementing or decrementing) Inventory on the shelf of the store.
      * Throws StoreException if count does not stay within allowable bounds.
-     * Method is synchronized to avoid a race condition
+     * Count is updated with compare-and-set to avoid a race condition
      * @param count
      * @throws StoreException
      */
-    synchronized public void updateInventory(int count) throws StoreException {
+    public void updateInventory(int count) throws StoreException {
+
+        int current;
+        do {
+            current = this.count.get();
+            //Check to see if count within proper bounds
+            if(count < 0 || (current + count) > capacity)
+                throw new StoreException("Update Inventory", "Inventory Is Smaller Than O " +
+                        "or Larger Than Shelf Capacity");
+        } while (!this.count.compareAndSet(current, current + count));
+    }
+
+    /**
+     * Method for taking units of the Product off the shelf of the store.
+     * Count never goes below 0 regardless of how many Baskets reserve the Inventory concurrently
+     * @param units
+     * @return true if units were reserved, false if there is not enough Inventory on the shelf
+     */
+    public boolean reserve(int units) {
+
+        if(units < 0)
+            return false;
+
+        int current;
+        do {
+            current = this.count.get();
+            if(current < units)
+                return false;
+        } while (!this.count.compareAndSet(current, current - units));
+
+        return true;
+    }
+
+    /**
+     * Method for putting units of the Product back on the shelf of the store.
+     * Count never goes above capacity regardless of how many Baskets release the Inventory concurrently
+     * @param units
+     * @return true if units were released, false if there is not enough capacity on the shelf
+     */
+    public boolean release(int units) {
+
+        if(units < 0)
+            return false;
 
-        //Check to see if count within proper bounds
-        if(count < 0 || (this.count + count) > capacity)
-            throw new StoreException("Update Inventory", "Inventory Is Smaller Than O " +
-                    "or Larger Than Shelf Capacity");
+        int current;
+        do {
+            current = this.count.get();
+            if(current + units > capacity)
+                return false;
+        } while (!this.count.compareAndSet(current, current + units));
 
-        this.count = this.count + count;
+        return true;
     }
 
     /**
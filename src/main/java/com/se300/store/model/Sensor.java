@@ -1,5 +1,8 @@
 package com.se300.store.model;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Sensor class implementation representing Sensor Device in the Store
  *
@@ -9,6 +12,11 @@ package com.se300.store.model;
  */
 public class Sensor extends Device{
 
+    private static final Logger logger = LoggerFactory.getLogger(Sensor.class);
+
+    // Readings of the Sensor, not part of the Sensor representation
+    private final transient SensorSeries series = new SensorSeries();
+
     /**
      * Constructor for Sensor class
      * @param id
@@ -26,6 +34,46 @@ public class Sensor extends Device{
      * Notifies observers when an event is processed
      */
     public void processEvent(String event) {
-        System.out.println("<<< " + "Processing Event : " + event);
+        processEvent(event, System.currentTimeMillis());
+    }
+
+    /**
+     * Record the reading carried by the event and process the event
+     * @param event
+     * @param timestamp epoch milliseconds of the event
+     */
+    @Override
+    public void processEvent(String event, long timestamp) {
+        series.record(timestamp, getReading(event));
+        logger.debug("<<< Processing Event : {}", event);
+    }
+
+    /**
+     * Getter method for the readings of the Sensor
+     * @return
+     */
+    public SensorSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Helper method extracting the reading of the event. Events starting with a number carry a
+     * measurement, any other event is an occurrence counted as 1
+     */
+    private static double getReading(String event) {
+        if (event == null || event.isEmpty()) {
+            return 1;
+        }
+        char first = event.charAt(0);
+        if (!Character.isDigit(first) && first != '-' && first != '+' && first != '.') {
+            return 1;
+        }
+
+        int end = event.indexOf(' ');
+        try {
+            return Double.parseDouble(end < 0 ? event : event.substring(0, end));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+package com.se300.store.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded in-memory time series of the readings of a single Sensor. Recent readings are kept in
+ * primitive ring arrays with timestamps stored as deltas from the previous reading, every reading
+ * is also folded into 1-minute and 1-hour rollups kept in rings of their own. The arrays are
+ * allocated with the first reading, so the memory used per Sensor never grows past that
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class SensorSeries {
+
+    // Number of raw readings kept per Sensor
+    public static final int READING_CAPACITY = 1024;
+
+    /**
+     * Resolution of the rollups together with the number of buckets kept
+     */
+    public enum Resolution {
+        MINUTE(60_000L, 360),
+        HOUR(3_600_000L, 336);
+
+        private final long millis;
+        private final int capacity;
+
+        Resolution(long millis, int capacity) {
+            this.millis = millis;
+            this.capacity = capacity;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    private int[] deltas;
+    private float[] values;
+    // Ring position of the oldest reading and number of readings kept
+    private int head;
+    private int size;
+    private long oldestTimestamp;
+    private long latestTimestamp;
+
+    private Buckets minutes;
+    private Buckets hours;
+
+    /**
+     * Record a reading, readings older than the latest one are recorded at the latest timestamp
+     * @param timestamp epoch milliseconds
+     * @param value
+     */
+    public synchronized void record(long timestamp, double value) {
+        if (values == null) {
+            deltas = new int[READING_CAPACITY];
+            values = new float[READING_CAPACITY];
+            minutes = new Buckets(Resolution.MINUTE);
+            hours = new Buckets(Resolution.HOUR);
+        }
+
+        timestamp = Math.max(timestamp, latestTimestamp);
+        long delta = timestamp - latestTimestamp;
+        if (size > 0 && delta > Integer.MAX_VALUE) {
+            //Gap does not fit the delta, everything kept so far is weeks old anyway
+            size = 0;
+        }
+
+        if (size == 0) {
+            head = 0;
+            oldestTimestamp = timestamp;
+            deltas[0] = 0;
+            values[0] = (float) value;
+            size = 1;
+        } else {
+            if (size == READING_CAPACITY) {
+                //Drop the oldest reading, the next one becomes the base of the deltas
+                head = (head + 1) % READING_CAPACITY;
+                oldestTimestamp += deltas[head];
+                size--;
+            }
+            int slot = (head + size) % READING_CAPACITY;
+            deltas[slot] = (int) delta;
+            values[slot] = (float) value;
+            size++;
+        }
+        latestTimestamp = timestamp;
+
+        minutes.add(timestamp, value);
+        hours.add(timestamp, value);
+    }
+
+    /**
+     * Get the raw readings taken within the range
+     * @param from inclusive epoch milliseconds
+     * @param to exclusive epoch milliseconds
+     * @return readings ordered by timestamp
+     */
+    public synchronized Readings getReadings(long from, long to) {
+        long[] timestamps = new long[size];
+        float[] found = new float[size];
+        int count = 0;
+
+        long timestamp = oldestTimestamp;
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % READING_CAPACITY;
+            if (i > 0) {
+                timestamp += deltas[slot];
+            }
+            if (timestamp >= to) {
+                break;
+            }
+            if (timestamp >= from) {
+                timestamps[count] = timestamp;
+                found[count] = values[slot];
+                count++;
+            }
+        }
+        return new Readings(Arrays.copyOf(timestamps, count), Arrays.copyOf(found, count));
+    }
+
+    /**
+     * Get the rollups of the buckets overlapping the range
+     * @param resolution
+     * @param from inclusive epoch milliseconds
+     * @param to exclusive epoch milliseconds
+     * @return rollups of the non empty buckets ordered by start
+     */
+    public synchronized List<Rollup> getRollups(Resolution resolution, long from, long to) {
+        if (values == null) {
+            return List.of();
+        }
+        return (resolution == Resolution.HOUR ? hours : minutes).collect(from, to);
+    }
+
+    /**
+     * Get the number of raw readings kept
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Raw readings returned by a range query, timestamps and values at the same index belong together
+     */
+    public static final class Readings {
+        private final long[] timestamps;
+        private final float[] values;
+
+        private Readings(long[] timestamps, float[] values) {
+            this.timestamps = timestamps;
+            this.values = values;
+        }
+
+        public long[] getTimestamps() {
+            return timestamps;
+        }
+
+        public float[] getValues() {
+            return values;
+        }
+
+        public int size() {
+            return values.length;
+        }
+    }
+
+    /**
+     * Aggregate of the readings of a single bucket
+     */
+    public static final class Rollup {
+        private final long start;
+        private final int count;
+        private final double min;
+        private final double max;
+        private final double mean;
+
+        private Rollup(long start, int count, double min, double max, double mean) {
+            this.start = start;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+    }
+
+    /**
+     * Ring of rollup buckets indexed by the bucket number, a slot holding an older bucket
+     * number is reused by the new bucket
+     */
+    private static final class Buckets {
+        private final Resolution resolution;
+        private final long[] numbers;
+        private final int[] counts;
+        private final float[] minimums;
+        private final float[] maximums;
+        private final double[] sums;
+        private long latest = -1;
+
+        private Buckets(Resolution resolution) {
+            this.resolution = resolution;
+            int capacity = resolution.getCapacity();
+            this.numbers = new long[capacity];
+            this.counts = new int[capacity];
+            this.minimums = new float[capacity];
+            this.maximums = new float[capacity];
+            this.sums = new double[capacity];
+            Arrays.fill(numbers, -1);
+        }
+
+        private void add(long timestamp, double value) {
+            long number = timestamp / resolution.getMillis();
+            int slot = (int) (number % numbers.length);
+            if (numbers[slot] != number) {
+                numbers[slot] = number;
+                counts[slot] = 0;
+                minimums[slot] = (float) value;
+                maximums[slot] = (float) value;
+                sums[slot] = 0;
+            }
+            counts[slot]++;
+            minimums[slot] = Math.min(minimums[slot], (float) value);
+            maximums[slot] = Math.max(maximums[slot], (float) value);
+            sums[slot] += value;
+            latest = Math.max(latest, number);
+        }
+
+        private List<Rollup> collect(long from, long to) {
+            List<Rollup> rollups = new ArrayList<>();
+            long millis = resolution.getMillis();
+            //Only the buckets still kept by the ring can be in the result
+            long first = Math.max(Math.floorDiv(from, millis), latest - numbers.length + 1);
+            long last = Math.min(Math.floorDiv(to - 1, millis), latest);
+            for (long number = Math.max(first, 0); number <= last; number++) {
+                int slot = (int) (number % numbers.length);
+                if (numbers[slot] == number) {
+                    rollups.add(new Rollup(number * millis, counts[slot], minimums[slot], maximums[slot],
+                            sums[slot] / counts[slot]));
+                }
+            }
+            return rollups;
+        }
+    }
+}
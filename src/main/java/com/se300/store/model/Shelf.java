@@ -1,7 +1,7 @@
 package com.se300.store.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Shelf class implementation representing shelf of the Aisle
@@ -18,6 +18,8 @@ public class Shelf {
     private String description;
     private Temperature temperature;
     private final Map<String, Inventory> inventoryMap;
+    // Aisle the Shelf belongs to, marked as transient to avoid circular reference (Aisle ↔ Shelf)
+    private transient Aisle aisle;
 
     /**
      * Constructor for the Shelf class
@@ -33,7 +35,7 @@ public class Shelf {
         this.level = level;
         this.description = description;
         this.temperature = temperature;
-        this.inventoryMap = new HashMap<>();
+        this.inventoryMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -146,9 +148,33 @@ public class Shelf {
         if(inventoryMap.putIfAbsent(inventoryId,inventory) != null)
             throw new StoreException("Add Inventory", "Inventory Already Exists");
 
+        //Keep Product index of the Aisle up to date
+        if(aisle != null)
+            inventory.setAisle(aisle);
+
         return inventory;
     }
 
+    /**
+     * Method for removing Inventory from the Shelf and from the Product index of the Aisle
+     * @param inventoryId
+     * @return removed Inventory or null if Inventory is not on the Shelf
+     */
+    public Inventory removeInventory(String inventoryId) {
+        Inventory inventory = inventoryMap.remove(inventoryId);
+        if(inventory != null)
+            inventory.setAisle(null);
+        return inventory;
+    }
+
+    /**
+     * Method for associating Shelf with the Aisle it was added to
+     * @param aisle
+     */
+    void setAisle(Aisle aisle) {
+        this.aisle = aisle;
+    }
+
     /**
      * Method for getting a Map of Inventory items that belong to the Store
      * @return
@@ -1,6 +1,7 @@
 package com.se300.store.model;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Store class implementation representing store of the Store Model Service
@@ -15,6 +16,7 @@ public class Store {
     private String address;
     private String description;
     // Mark collections as transient to avoid circular reference issues during JSON serialization
+    // Collections are concurrent since Store is shared between request threads
     private final transient Map<String, Aisle> aislesMap;
     private final transient Map<String, Device> deviceMap;
     private final transient Map<String, Customer> customerMap;
@@ -31,11 +33,11 @@ public class Store {
         this.id = id;
         this.address = address;
         this.description = description;
-        this.aislesMap = new HashMap<>();
-        this.deviceMap = new HashMap<>();
-        this.customerMap = new HashMap<>();
-        this.inventoryMap = new HashMap<>();
-        this.basketMap = new HashMap<>();
+        this.aislesMap = new ConcurrentHashMap<>();
+        this.deviceMap = new ConcurrentHashMap<>();
+        this.customerMap = new ConcurrentHashMap<>();
+        this.inventoryMap = new ConcurrentHashMap<>();
+        this.basketMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -122,6 +124,22 @@ public class Store {
         return this.aislesMap.get(aisleNumber);
     }
 
+    /**
+     * Read only view of all the Aisles of the Store
+     * @return
+     */
+    public Collection<Aisle> getAisles() {
+        return Collections.unmodifiableCollection(this.aislesMap.values());
+    }
+
+    /**
+     * Read only view of all the Devices of the Store
+     * @return
+     */
+    public Collection<Device> getDevices() {
+        return Collections.unmodifiableCollection(this.deviceMap.values());
+    }
+
     /**
      * Method for keeping local reference of the Inventory in the Store.
      * If Inventory already exists in the Store throw StoreException
@@ -189,10 +207,7 @@ public class Store {
      * @param customer
      */
     public void removeCustomer(Customer customer){
-
-        if(this.customerMap.get(customer.getId()) == null){
-            this.customerMap.remove(customer.getId());
-        }
+        this.customerMap.remove(customer.getId(), customer);
     }
 
     @Override
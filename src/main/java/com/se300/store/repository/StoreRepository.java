@@ -1,9 +1,10 @@
 package com.se300.store.repository;
 
 import com.se300.store.data.DataManager;
+import com.se300.store.data.DataRegion;
+import com.se300.store.data.Page;
 import com.se300.store.model.Store;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -17,17 +18,16 @@ import java.util.Optional;
 public class StoreRepository {
 
     private static final String STORES_KEY = "stores";
-    private final DataManager dataManager;
+    private final DataRegion<Store> stores;
 
     public StoreRepository(DataManager dataManager) {
-        this.dataManager = dataManager;
+        this.stores = dataManager.region(STORES_KEY, Store.class);
     }
 
     /**
      * Find store by ID
      */
     public Optional<Store> findById(String storeId) {
-        Map<String, Store> stores = getStoresMap();
         return Optional.ofNullable(stores.get(storeId));
     }
 
@@ -35,16 +35,13 @@ public class StoreRepository {
      * Save or update a store
      */
     public void save(Store store) {
-        Map<String, Store> stores = getStoresMap();
         stores.put(store.getId(), store);
-        dataManager.put(STORES_KEY, stores);
     }
 
     /**
      * Check if store exists by ID
      */
     public boolean existsById(String storeId) {
-        Map<String, Store> stores = getStoresMap();
         return stores.containsKey(storeId);
     }
 
@@ -52,23 +49,22 @@ public class StoreRepository {
      * Delete store by ID
      */
     public void delete(String storeId) {
-        Map<String, Store> stores = getStoresMap();
         stores.remove(storeId);
-        dataManager.put(STORES_KEY, stores);
     }
 
     /**
-     * Get all stores
+     * Get all stores. The returned map is an immutable snapshot shared between callers
      */
     public Map<String, Store> findAll() {
-        return new HashMap<>(getStoresMap());
+        return stores.snapshot();
     }
 
     /**
-     * Helper method to get stores map from DataManager
+     * Get a page of stores ordered by ID
+     *
+     * @throws IllegalArgumentException if the cursor or the limit is invalid
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Store> getStoresMap() {
-        return dataManager.get(STORES_KEY);
+    public Page<Store> findPage(String cursor, int limit) {
+        return stores.page(cursor, limit);
     }
 }
@@ -1,9 +1,10 @@
 package com.se300.store.repository;
 
 import com.se300.store.data.DataManager;
+import com.se300.store.data.DataRegion;
+import com.se300.store.data.Page;
 import com.se300.store.model.User;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -16,18 +17,18 @@ import java.util.Optional;
  */
 public class UserRepository {
 
+    // Email of the administrator, allowed to manage every user
+    public static final String ADMIN_EMAIL = "admin@store.com";
+
     private static final String USERS_KEY = "users";
-    private final DataManager dataManager;
+    private final DataRegion<User> users;
 
     public UserRepository(DataManager dataManager) {
-        this.dataManager = dataManager;
-        // Initialize user storage in DataManager if not exists
-        if (!dataManager.containsKey(USERS_KEY)) {
-            Map<String, User> users = new HashMap<>();
-            // Add default test users
-            users.put("admin@store.com", new User("admin@store.com", "admin123", "Admin User"));
-            users.put("user@store.com", new User("user@store.com", "user123", "Regular User"));
-            dataManager.put(USERS_KEY, users);
+        this.users = dataManager.region(USERS_KEY, User.class);
+        // Initialize user storage with default test users if it is empty
+        if (users.isEmpty()) {
+            users.putIfAbsent(ADMIN_EMAIL, new User(ADMIN_EMAIL, "admin123", "Admin User"));
+            users.putIfAbsent("user@store.com", new User("user@store.com", "user123", "Regular User"));
         }
     }
 
@@ -35,7 +36,6 @@ public class UserRepository {
      * Find user by email
      */
     public Optional<User> findByEmail(String email) {
-        Map<String, User> users = getUsersMap();
         return Optional.ofNullable(users.get(email));
     }
 
@@ -43,16 +43,22 @@ public class UserRepository {
      * Save or update a user
      */
     public void save(User user) {
-        Map<String, User> users = getUsersMap();
         users.put(user.getEmail(), user);
-        dataManager.put(USERS_KEY, users);
+    }
+
+    /**
+     * Save a new user unless a user with the same email already exists
+     *
+     * @return false if the email is already taken
+     */
+    public boolean saveIfAbsent(User user) {
+        return users.putIfAbsent(user.getEmail(), user) == null;
     }
 
     /**
      * Check if user exists by email
      */
     public boolean existsByEmail(String email) {
-        Map<String, User> users = getUsersMap();
         return users.containsKey(email);
     }
 
@@ -60,28 +66,22 @@ public class UserRepository {
      * Delete user by email
      */
     public void delete(String email) {
-        Map<String, User> users = getUsersMap();
         users.remove(email);
-        dataManager.put(USERS_KEY, users);
     }
 
     /**
-     * Get all users
+     * Get all users. The returned map is an immutable snapshot shared between callers
      */
     public Map<String, User> findAll() {
-        return new HashMap<>(getUsersMap());
+        return users.snapshot();
     }
 
     /**
-     * Helper method to get users map from DataManager
+     * Get a page of users ordered by email
+     *
+     * @throws IllegalArgumentException if the cursor or the limit is invalid
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, User> getUsersMap() {
-        Map<String, User> users = dataManager.get(USERS_KEY);
-        if (users == null) {
-            users = new HashMap<>();
-            dataManager.put(USERS_KEY, users);
-        }
-        return users;
+    public Page<User> findPage(String cursor, int limit) {
+        return users.page(cursor, limit);
     }
 }
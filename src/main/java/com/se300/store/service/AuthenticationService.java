@@ -1,9 +1,11 @@
 package com.se300.store.service;
 
+import com.se300.store.data.Page;
 import com.se300.store.model.User;
 import com.se300.store.repository.UserRepository;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Optional;
@@ -17,19 +19,116 @@ import java.util.Optional;
  **/
 public class AuthenticationService {
 
+    private static final String BASIC_PREFIX = "Basic ";
+    private static final int DEFAULT_MAX_SESSIONS = 10_000;
+    private static final long DEFAULT_SESSION_TTL_MILLIS = 30 * 60 * 1000L;
+
     private final UserRepository userRepository;
+    private final SessionCache sessionCache;
 
     public AuthenticationService(UserRepository userRepository) {
+        this(userRepository, new SessionCache(DEFAULT_MAX_SESSIONS, DEFAULT_SESSION_TTL_MILLIS));
+    }
+
+    public AuthenticationService(UserRepository userRepository, SessionCache sessionCache) {
         this.userRepository = userRepository;
+        this.sessionCache = sessionCache;
+    }
+
+    /**
+     * Check user credentials
+     *
+     * @return user or null if the credentials are invalid
+     */
+    public User authenticate(String email, String password) {
+        if (email == null || password == null) {
+            return null;
+        }
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null || user.getPassword() == null) {
+            return null;
+        }
+
+        //Compare in constant time so that the response time does not reveal the password
+        boolean matches = MessageDigest.isEqual(user.getPassword().getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8));
+        return matches ? user : null;
+    }
+
+    /**
+     * Check credentials of the Basic Authorization header
+     *
+     * @return user or null if the header is malformed or the credentials are invalid
+     */
+    public User authenticateBasic(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BASIC_PREFIX)) {
+            return null;
+        }
+
+        String credentials;
+        try {
+            byte[] decoded = Base64.getDecoder().decode(authorizationHeader.substring(BASIC_PREFIX.length()).trim());
+            credentials = new String(decoded, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        int separator = credentials.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        return authenticate(credentials.substring(0, separator), credentials.substring(separator + 1));
     }
 
     /**
-     * Register a new user
+     * Check user credentials and issue a session token
+     *
+     * @return token or null if the credentials are invalid
+     */
+    public String login(String email, String password) {
+        User user = authenticate(email, password);
+        return user == null ? null : sessionCache.create(user);
+    }
+
+    /**
+     * Validate session token. This is a single cache lookup, the repository is not involved
+     *
+     * @return user of the session or null if the token is unknown or expired
+     */
+    public User validateToken(String token) {
+        return sessionCache.get(token);
+    }
+
+    /**
+     * Check whether the user may manage the account of the email, the administrator may manage every account
+     *
+     * @param user user of the session, null if there is no session
+     * @param email email of the account, null for all the accounts
+     */
+    public boolean isAuthorized(User user, String email) {
+        if (user == null) {
+            return false;
+        }
+        return UserRepository.ADMIN_EMAIL.equals(user.getEmail()) || (email != null && email.equals(user.getEmail()));
+    }
+
+    /**
+     * End the session
+     *
+     * @return true if the session existed
+     */
+    public boolean logout(String token) {
+        return sessionCache.remove(token);
+    }
+
+    /**
+     * Register a new user, an existing user with the same email is left untouched
+     *
+     * @return registered user or null if the email is already taken
      */
     public User registerUser(String email, String password, String name) {
         User user = new User(email, password, name);
-        userRepository.save(user);
-        return user;
+        return userRepository.saveIfAbsent(user) ? user : null;
     }
 
     /**
@@ -46,6 +145,14 @@ public class AuthenticationService {
         return userRepository.findAll().values();
     }
 
+    /**
+     * Get a page of users ordered by email
+     * @throws IllegalArgumentException if the cursor or the limit is invalid
+     */
+    public Page<User> getUsers(String cursor, int limit) {
+        return userRepository.findPage(cursor, limit);
+    }
+
     /**
      * Get user by email
      */
@@ -65,6 +172,8 @@ public class AuthenticationService {
         User user = userOpt.get();
         if (password != null) {
             user.setPassword(password);
+            //Sessions opened with the old password are no longer valid
+            sessionCache.removeUser(email);
         }
         if (name != null) {
             user.setName(name);
@@ -82,6 +191,7 @@ public class AuthenticationService {
             return false;
         }
         userRepository.delete(email);
+        sessionCache.removeUser(email);
         return true;
     }
 }
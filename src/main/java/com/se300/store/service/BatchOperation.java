@@ -0,0 +1,180 @@
+package com.se300.store.service;
+
+import com.se300.store.model.AisleLocation;
+import com.se300.store.model.InventoryType;
+import com.se300.store.model.ShelfLevel;
+import com.se300.store.model.Temperature;
+
+/**
+ * Single operation of a batch applied by the StoreService in one call. The operation
+ * name selects the StoreService method and only the fields that method needs are used
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class BatchOperation {
+
+    public static final String PROVISION_AISLE = "provisionAisle";
+    public static final String PROVISION_SHELF = "provisionShelf";
+    public static final String PROVISION_INVENTORY = "provisionInventory";
+    public static final String UPDATE_INVENTORY = "updateInventory";
+    public static final String PROVISION_DEVICE = "provisionDevice";
+
+    private String op;
+    private String aisleNumber;
+    private String shelfId;
+    private String inventoryId;
+    private String deviceId;
+    private String productId;
+    private String name;
+    private String description;
+    private AisleLocation location;
+    private ShelfLevel level;
+    private Temperature temperature;
+    private int capacity;
+    private int count;
+    private InventoryType type;
+    private String deviceType;
+
+    public BatchOperation() {
+    }
+
+    private BatchOperation(String op) {
+        this.op = op;
+    }
+
+    public static BatchOperation provisionAisle(String aisleNumber, String name, String description,
+                                                AisleLocation location) {
+        BatchOperation operation = new BatchOperation(PROVISION_AISLE);
+        operation.aisleNumber = aisleNumber;
+        operation.name = name;
+        operation.description = description;
+        operation.location = location;
+        return operation;
+    }
+
+    public static BatchOperation provisionShelf(String aisleNumber, String shelfId, String name, ShelfLevel level,
+                                                String description, Temperature temperature) {
+        BatchOperation operation = new BatchOperation(PROVISION_SHELF);
+        operation.aisleNumber = aisleNumber;
+        operation.shelfId = shelfId;
+        operation.name = name;
+        operation.level = level;
+        operation.description = description;
+        operation.temperature = temperature;
+        return operation;
+    }
+
+    public static BatchOperation provisionInventory(String inventoryId, String aisleNumber, String shelfId,
+                                                    int capacity, int count, String productId, InventoryType type) {
+        BatchOperation operation = new BatchOperation(PROVISION_INVENTORY);
+        operation.inventoryId = inventoryId;
+        operation.aisleNumber = aisleNumber;
+        operation.shelfId = shelfId;
+        operation.capacity = capacity;
+        operation.count = count;
+        operation.productId = productId;
+        operation.type = type;
+        return operation;
+    }
+
+    public static BatchOperation updateInventory(String inventoryId, int count) {
+        BatchOperation operation = new BatchOperation(UPDATE_INVENTORY);
+        operation.inventoryId = inventoryId;
+        operation.count = count;
+        return operation;
+    }
+
+    public static BatchOperation provisionDevice(String deviceId, String name, String deviceType,
+                                                 String aisleNumber) {
+        BatchOperation operation = new BatchOperation(PROVISION_DEVICE);
+        operation.deviceId = deviceId;
+        operation.name = name;
+        operation.deviceType = deviceType;
+        operation.aisleNumber = aisleNumber;
+        return operation;
+    }
+
+    /**
+     * Name of the StoreService method applying the operation
+     */
+    public String getOp() {
+        return op;
+    }
+
+    public String getAisleNumber() {
+        return aisleNumber;
+    }
+
+    public String getShelfId() {
+        return shelfId;
+    }
+
+    public String getInventoryId() {
+        return inventoryId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public AisleLocation getLocation() {
+        return location;
+    }
+
+    public ShelfLevel getLevel() {
+        return level;
+    }
+
+    public Temperature getTemperature() {
+        return temperature;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Initial count for provisionInventory, count change for updateInventory
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public InventoryType getType() {
+        return type;
+    }
+
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    /**
+     * Id of the entity the operation creates or changes
+     */
+    public String getEntityId() {
+        if (op == null) {
+            return null;
+        }
+        return switch (op) {
+            case PROVISION_AISLE -> aisleNumber;
+            case PROVISION_SHELF -> shelfId;
+            case PROVISION_INVENTORY, UPDATE_INVENTORY -> inventoryId;
+            case PROVISION_DEVICE -> deviceId;
+            default -> null;
+        };
+    }
+}
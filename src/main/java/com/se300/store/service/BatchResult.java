@@ -0,0 +1,81 @@
+package com.se300.store.service;
+
+import com.se300.store.model.StoreException;
+
+/**
+ * Result of a single BatchOperation, reported at the position of the operation in the batch
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class BatchResult {
+
+    private final int index;
+    private final String op;
+    private final String id;
+    private final boolean successful;
+    private final String action;
+    private final String reason;
+
+    private BatchResult(int index, String op, String id, boolean successful, String action, String reason) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.successful = successful;
+        this.action = action;
+        this.reason = reason;
+    }
+
+    static BatchResult success(int index, String op, String id) {
+        return new BatchResult(index, op, id, true, null, null);
+    }
+
+    static BatchResult failure(int index, String op, String id, StoreException e) {
+        return new BatchResult(index, op, id, false, e.getAction(), e.getReason());
+    }
+
+    /**
+     * Position of the operation in the batch
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    /**
+     * Id of the entity the operation creates or changes
+     */
+    public String getId() {
+        return id;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * Reason of the failure or null if the operation was applied
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "index=" + index +
+                ", op='" + op + '\'' +
+                ", id='" + id + '\'' +
+                ", successful=" + successful +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
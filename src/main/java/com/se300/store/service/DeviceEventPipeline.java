@@ -0,0 +1,290 @@
+package com.se300.store.service;
+
+import com.se300.store.model.Device;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous ingestion pipeline for Device events. Every consumer thread owns a bounded ring buffer
+ * that is allocated once, Devices are assigned to a ring by their id so events of the same Device are
+ * handled in the order they were published. Publishing claims a slot and fills it in place, so the
+ * producer path does not allocate. Consumers drain everything that has been published in batches
+ * and release the slots of a batch at once
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class DeviceEventPipeline implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceEventPipeline.class);
+
+    // Default number of slots of every ring
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    // Maximum number of events a consumer handles before releasing their slots
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    // Number of empty polls a consumer spins before parking
+    private static final int IDLE_SPINS = 100;
+
+    // Upper bound of a consumer park, covers a wake up missed by the producers
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Minimum time between two handler failures logged by a consumer, failures in between are only counted
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Ring[] rings;
+    private final DeviceEventHandler handler;
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * Handler of the events taken off the rings, runs on the consumer threads
+     */
+    @FunctionalInterface
+    public interface DeviceEventHandler {
+        void handle(Device device, String event, long timestamp);
+    }
+
+    /**
+     * Constructor for the DeviceEventPipeline class dispatching the events to the Devices themselves
+     * @param consumers number of consumer threads
+     */
+    public DeviceEventPipeline(int consumers) {
+        this(consumers, DEFAULT_CAPACITY, (device, event, timestamp) -> device.processEvent(event, timestamp));
+    }
+
+    /**
+     * Constructor for the DeviceEventPipeline class
+     * @param consumers number of consumer threads, each one owning a ring
+     * @param capacity number of slots of every ring, rounded up to a power of two
+     * @param handler handler of the events
+     */
+    public DeviceEventPipeline(int consumers, int capacity, DeviceEventHandler handler) {
+        if (consumers < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Consumers and capacity must be positive");
+        }
+        this.handler = handler;
+        this.rings = new Ring[consumers];
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        for (int i = 0; i < consumers; i++) {
+            rings[i] = new Ring(size);
+            Thread thread = new Thread(rings[i], "device-events-" + (i + 1));
+            thread.setDaemon(true);
+            rings[i].consumer = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Publish Device event without waiting for it to be handled
+     * @param device
+     * @param event
+     * @return false if the ring of the Device is full or the pipeline is closed
+     */
+    public boolean publish(Device device, String event) {
+        Ring ring = rings[(device.getId().hashCode() & Integer.MAX_VALUE) % rings.length];
+        //Announce the producer before checking the flag, close waits for announced producers to finish
+        ring.publishing.incrementAndGet();
+        try {
+            if (!running) {
+                return false;
+            }
+            if (!ring.offer(device, event, System.currentTimeMillis())) {
+                rejectedCount.increment();
+                return false;
+            }
+            return true;
+        } finally {
+            ring.publishing.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wait until all the published events are handled
+     * @param timeout
+     * @param unit
+     * @return false if the events were not handled in time
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Ring ring : rings) {
+            long target = ring.claimed.get();
+            while (ring.consumed < target) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of events rejected because the ring was full
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Number of events whose handler has thrown an exception
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Stop accepting events and stop the consumers once the published events are handled
+     */
+    @Override
+    public void close() {
+        running = false;
+        //Producers that saw the pipeline running finish their events before the consumers may stop
+        for (Ring ring : rings) {
+            while (ring.publishing.get() > 0) {
+                Thread.onSpinWait();
+            }
+            ring.closed = true;
+            LockSupport.unpark(ring.consumer);
+        }
+        for (Ring ring : rings) {
+            try {
+                ring.consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ring buffer with many producers and a single consumer. A slot holds the sequence it was
+     * published with, the consumer reads a slot once that sequence shows up and frees the slots
+     * by advancing its own sequence
+     */
+    private final class Ring implements Runnable {
+
+        private final int mask;
+        private final Device[] devices;
+        private final String[] events;
+        private final long[] timestamps;
+        private final AtomicLongArray published;
+        // Next sequence to be claimed by a producer
+        private final AtomicLong claimed = new AtomicLong();
+        // Next sequence to be handled by the consumer, slots below it are free
+        private volatile long consumed;
+        // Producers between checking the running flag and publishing their event
+        private final AtomicInteger publishing = new AtomicInteger();
+        // Set once no producer can publish to the ring anymore
+        private volatile boolean closed;
+        private volatile boolean parked;
+        private Thread consumer;
+        // Consumer thread only: time of the last logged failure and failures not logged since
+        private long lastFailureLog;
+        private long unloggedFailures;
+
+        private Ring(int size) {
+            this.mask = size - 1;
+            this.devices = new Device[size];
+            this.events = new String[size];
+            this.timestamps = new long[size];
+            this.published = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                published.set(i, -1);
+            }
+        }
+
+        private boolean offer(Device device, String event, long timestamp) {
+            long sequence;
+            do {
+                sequence = claimed.get();
+                if (sequence - consumed > mask) {
+                    return false;
+                }
+            } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+            int slot = (int) sequence & mask;
+            devices[slot] = device;
+            events[slot] = event;
+            timestamps[slot] = timestamp;
+            //Publishing the sequence makes the slot contents visible to the consumer
+            published.setRelease(slot, sequence);
+
+            if (parked) {
+                LockSupport.unpark(consumer);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            long next = 0;
+            int idle = 0;
+            while (true) {
+                int count = 0;
+                int slot = (int) next & mask;
+                while (count < DRAIN_BATCH_SIZE && published.getAcquire(slot) == next) {
+                    dispatch(slot);
+                    next++;
+                    count++;
+                    slot = (int) next & mask;
+                }
+
+                if (count > 0) {
+                    //Release the slots of the whole batch at once
+                    consumed = next;
+                    idle = 0;
+                } else if (closed && claimed.get() == next) {
+                    return;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    //Check again so an event published before the flag was visible is not missed
+                    if (published.getAcquire(slot) != next && !closed) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        private void dispatch(int slot) {
+            Device device = devices[slot];
+            String event = events[slot];
+            devices[slot] = null;
+            events[slot] = null;
+            try {
+                handler.handle(device, event, timestamps[slot]);
+            } catch (RuntimeException e) {
+                failedCount.increment();
+                logFailure(device, event, e);
+            }
+        }
+
+        private void logFailure(Device device, String event, RuntimeException e) {
+            long now = System.nanoTime();
+            if (lastFailureLog != 0 && now - lastFailureLog < FAILURE_LOG_INTERVAL_NANOS) {
+                unloggedFailures++;
+                return;
+            }
+            logger.warn("Device {} failed to handle event {} ({} more failures since the last report)",
+                    device.getId(), event, unloggedFailures, e);
+            lastFailureLog = now;
+            unloggedFailures = 0;
+        }
+    }
+}
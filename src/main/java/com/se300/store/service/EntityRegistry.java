@@ -0,0 +1,369 @@
+package com.se300.store.service;
+
+import com.se300.store.data.Page;
+import com.se300.store.model.*;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Concurrent registry of all the entities managed by the StoreService. Store scoped entities
+ * (Inventory and Devices) are kept in a shard that belongs to their Store, while entities that
+ * can move between Stores (Products, Customers and Baskets) are kept in global maps.
+ * All lookups are lock free and all registrations are atomic put-if-absent operations
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class EntityRegistry {
+
+    private final ConcurrentMap<String, StoreShard> shards;
+    // Ordered index of the Store ids used for cursor pagination
+    private final NavigableSet<String> storeIndex;
+    private final ConcurrentMap<String, StoreShard> inventoryOwners;
+    private final ConcurrentMap<String, StoreShard> deviceOwners;
+    private final ConcurrentMap<String, Product> productMap;
+    private final ConcurrentMap<String, Customer> customerMap;
+    private final ConcurrentMap<String, Basket> basketMap;
+    // Customer location index: id of the Customer -> id of the Store he/she is currently in
+    private final ConcurrentMap<String, String> customerStoreMap;
+    private final Collection<Store> storeView;
+
+    /**
+     * Constructor for the EntityRegistry class
+     */
+    public EntityRegistry() {
+        this.shards = new ConcurrentHashMap<>();
+        this.storeIndex = new ConcurrentSkipListSet<>();
+        this.inventoryOwners = new ConcurrentHashMap<>();
+        this.deviceOwners = new ConcurrentHashMap<>();
+        this.productMap = new ConcurrentHashMap<>();
+        this.customerMap = new ConcurrentHashMap<>();
+        this.basketMap = new ConcurrentHashMap<>();
+        this.customerStoreMap = new ConcurrentHashMap<>();
+        this.storeView = new StoreView();
+    }
+
+    /**
+     * Register a Store together with its empty shard
+     * @param store
+     * @return Store that was already registered under the same id or null
+     */
+    public Store putStoreIfAbsent(Store store) {
+        StoreShard existing = shards.putIfAbsent(store.getId(), new StoreShard(store));
+        if (existing == null) {
+            storeIndex.add(store.getId());
+            return null;
+        }
+        return existing.store;
+    }
+
+    /**
+     * Get Store by id
+     * @param storeId
+     * @return Store or null if Store does not exist
+     */
+    public Store getStore(String storeId) {
+        StoreShard shard = shards.get(storeId);
+        return shard == null ? null : shard.store;
+    }
+
+    /**
+     * Remove Store and every Inventory and Device registered in its shard
+     * @param storeId
+     * @return removed Store or null if Store does not exist
+     */
+    public Store removeStore(String storeId) {
+        StoreShard shard = shards.remove(storeId);
+        if (shard == null) {
+            return null;
+        }
+        storeIndex.remove(storeId);
+        shard.inventoryMap.keySet().forEach(inventoryId -> inventoryOwners.remove(inventoryId, shard));
+        shard.deviceMap.keySet().forEach(deviceId -> deviceOwners.remove(deviceId, shard));
+        shard.customerIds.forEach(customerId -> customerStoreMap.remove(customerId, storeId));
+        return shard.store;
+    }
+
+    /**
+     * Live read only view of all the registered Stores
+     * @return
+     */
+    public Collection<Store> getStores() {
+        return storeView;
+    }
+
+    /**
+     * Page of the registered Stores ordered by id
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @param limit maximum number of Stores
+     * @return Page of Stores
+     * @throws IllegalArgumentException if the cursor or the limit is invalid
+     */
+    public Page<Store> getStorePage(String cursor, int limit) {
+        return Page.slice(storeIndex, this::getStore, cursor, limit);
+    }
+
+    /**
+     * Register Inventory in the shard of the given Store
+     * @param storeId
+     * @param inventory
+     * @return true if Inventory was registered, false if Inventory with the same id already exists
+     * @throws StoreException if Store does not exist
+     */
+    public boolean registerInventory(String storeId, Inventory inventory) throws StoreException {
+        StoreShard shard = getShard(storeId, "Register Inventory");
+        if (inventoryOwners.putIfAbsent(inventory.getId(), shard) != null) {
+            return false;
+        }
+        shard.inventoryMap.put(inventory.getId(), inventory);
+        return true;
+    }
+
+    /**
+     * Get Inventory by id regardless of the Store it belongs to
+     * @param inventoryId
+     * @return Inventory or null if Inventory does not exist
+     */
+    public Inventory getInventory(String inventoryId) {
+        StoreShard shard = inventoryOwners.get(inventoryId);
+        return shard == null ? null : shard.inventoryMap.get(inventoryId);
+    }
+
+    /**
+     * Register Device in the shard of the given Store
+     * @param storeId
+     * @param device
+     * @return true if Device was registered, false if Device with the same id already exists
+     * @throws StoreException if Store does not exist
+     */
+    public boolean registerDevice(String storeId, Device device) throws StoreException {
+        StoreShard shard = getShard(storeId, "Register Device");
+        if (deviceOwners.putIfAbsent(device.getId(), shard) != null) {
+            return false;
+        }
+        shard.deviceMap.put(device.getId(), device);
+        return true;
+    }
+
+    /**
+     * Get Device by id regardless of the Store it belongs to
+     * @param deviceId
+     * @return Device or null if Device does not exist
+     */
+    public Device getDevice(String deviceId) {
+        StoreShard shard = deviceOwners.get(deviceId);
+        return shard == null ? null : shard.deviceMap.get(deviceId);
+    }
+
+    /**
+     * Register Product
+     * @param product
+     * @return Product that was already registered under the same id or null
+     */
+    public Product putProductIfAbsent(Product product) {
+        return productMap.putIfAbsent(product.getId(), product);
+    }
+
+    /**
+     * Get Product by id
+     * @param productId
+     * @return Product or null if Product does not exist
+     */
+    public Product getProduct(String productId) {
+        return productMap.get(productId);
+    }
+
+    /**
+     * Register Customer
+     * @param customer
+     * @return Customer that was already registered under the same id or null
+     */
+    public Customer putCustomerIfAbsent(Customer customer) {
+        return customerMap.putIfAbsent(customer.getId(), customer);
+    }
+
+    /**
+     * Get Customer by id
+     * @param customerId
+     * @return Customer or null if Customer does not exist
+     */
+    public Customer getCustomer(String customerId) {
+        return customerMap.get(customerId);
+    }
+
+    /**
+     * Get id of the Store the Customer is currently in
+     * @param customerId
+     * @return Store id or null if Customer is not in any Store
+     */
+    public String getCustomerStoreId(String customerId) {
+        return customerStoreMap.get(customerId);
+    }
+
+    /**
+     * Record the Store the Customer is currently in
+     * @param customerId
+     * @param storeId
+     * @return id of the Store the Customer was in before or null
+     */
+    public String setCustomerStoreId(String customerId, String storeId) {
+        String[] previous = new String[1];
+        customerStoreMap.compute(customerId, (id, current) -> {
+            previous[0] = current;
+            indexCustomer(id, current, storeId);
+            return storeId;
+        });
+        return previous[0];
+    }
+
+    /**
+     * Move the Customer to another Store in the customer location index as a single atomic step
+     * @param customerId
+     * @param expectedStoreId id of the Store the Customer is expected to be in, null if in no Store
+     * @param storeId
+     * @return false if the Customer is no longer in the expected Store, i.e. has been moved meanwhile
+     */
+    public boolean moveCustomer(String customerId, String expectedStoreId, String storeId) {
+        boolean[] moved = new boolean[1];
+        customerStoreMap.compute(customerId, (id, current) -> {
+            if (!Objects.equals(current, expectedStoreId)) {
+                return current;
+            }
+            moved[0] = true;
+            indexCustomer(id, current, storeId);
+            return storeId;
+        });
+        return moved[0];
+    }
+
+    /**
+     * Register Basket
+     * @param basket
+     * @return Basket that was already registered under the same id or null
+     */
+    public Basket putBasketIfAbsent(Basket basket) {
+        return basketMap.putIfAbsent(basket.getId(), basket);
+    }
+
+    /**
+     * Get Basket by id
+     * @param basketId
+     * @return Basket or null if Basket does not exist
+     */
+    public Basket getBasket(String basketId) {
+        return basketMap.get(basketId);
+    }
+
+    /**
+     * Live read only view of all the registered Products
+     */
+    public Collection<Product> getProducts() {
+        return Collections.unmodifiableCollection(productMap.values());
+    }
+
+    /**
+     * Live read only view of all the registered Customers
+     */
+    public Collection<Customer> getCustomers() {
+        return Collections.unmodifiableCollection(customerMap.values());
+    }
+
+    /**
+     * Live read only view of all the registered Baskets
+     */
+    public Collection<Basket> getBaskets() {
+        return Collections.unmodifiableCollection(basketMap.values());
+    }
+
+    /**
+     * Remove all the registered entities
+     */
+    public void clear() {
+        shards.clear();
+        storeIndex.clear();
+        inventoryOwners.clear();
+        deviceOwners.clear();
+        productMap.clear();
+        customerMap.clear();
+        basketMap.clear();
+        customerStoreMap.clear();
+    }
+
+    /**
+     * Helper method keeping the Customers of the Store shards in line with the customer location index,
+     * runs while the index entry of the Customer is locked
+     */
+    private void indexCustomer(String customerId, String fromStoreId, String toStoreId) {
+        StoreShard from = fromStoreId == null ? null : shards.get(fromStoreId);
+        if (from != null) {
+            from.customerIds.remove(customerId);
+        }
+        StoreShard to = toStoreId == null ? null : shards.get(toStoreId);
+        if (to != null) {
+            to.customerIds.add(customerId);
+        }
+    }
+
+    /**
+     * Helper method resolving the shard of the Store
+     */
+    private StoreShard getShard(String storeId, String action) throws StoreException {
+        StoreShard shard = shards.get(storeId);
+        if (shard == null) {
+            throw new StoreException(action, "Store Does Not Exist");
+        }
+        return shard;
+    }
+
+    /**
+     * Shard holding a Store together with the entities that live in it
+     */
+    private static final class StoreShard {
+        private final Store store;
+        private final ConcurrentMap<String, Inventory> inventoryMap = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Device> deviceMap = new ConcurrentHashMap<>();
+        // Ids of the Customers the customer location index places in the Store
+        private final Set<String> customerIds = ConcurrentHashMap.newKeySet();
+
+        private StoreShard(Store store) {
+            this.store = store;
+        }
+    }
+
+    /**
+     * Read only view over the shards exposing only the Stores
+     */
+    private final class StoreView extends AbstractCollection<Store> {
+
+        @Override
+        public Iterator<Store> iterator() {
+            Iterator<StoreShard> iterator = shards.values().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Store next() {
+                    return iterator.next().store;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return shards.size();
+        }
+    }
+}
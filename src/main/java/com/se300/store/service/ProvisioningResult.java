@@ -0,0 +1,150 @@
+package com.se300.store.service;
+
+import com.se300.store.model.StoreException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a batch provisioning call. Instead of throwing on the first problem the StoreService
+ * applies every valid entry and reports the invalid ones as errors
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class ProvisioningResult {
+
+    private final String storeId;
+    private int aisleCount;
+    private int shelfCount;
+    private int inventoryCount;
+    private int deviceCount;
+    private final List<ProvisioningError> errors = new ArrayList<>();
+
+    public ProvisioningResult(String storeId) {
+        this.storeId = storeId;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Number of Aisles provisioned
+     */
+    public int getAisleCount() {
+        return aisleCount;
+    }
+
+    /**
+     * Number of Shelves provisioned
+     */
+    public int getShelfCount() {
+        return shelfCount;
+    }
+
+    /**
+     * Number of Inventory slots provisioned
+     */
+    public int getInventoryCount() {
+        return inventoryCount;
+    }
+
+    /**
+     * Number of Devices provisioned
+     */
+    public int getDeviceCount() {
+        return deviceCount;
+    }
+
+    /**
+     * Errors of the entries that were not provisioned
+     */
+    public List<ProvisioningError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Check if every entry was provisioned
+     */
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+
+    void aisleProvisioned() {
+        aisleCount++;
+    }
+
+    void shelfProvisioned() {
+        shelfCount++;
+    }
+
+    void inventoryProvisioned() {
+        inventoryCount++;
+    }
+
+    void deviceProvisioned() {
+        deviceCount++;
+    }
+
+    void addError(String entityType, String entityId, StoreException e) {
+        errors.add(new ProvisioningError(entityType, entityId, e.getAction(), e.getReason()));
+    }
+
+    @Override
+    public String toString() {
+        return "ProvisioningResult{" +
+                "storeId='" + storeId + '\'' +
+                ", aisleCount=" + aisleCount +
+                ", shelfCount=" + shelfCount +
+                ", inventoryCount=" + inventoryCount +
+                ", deviceCount=" + deviceCount +
+                ", errors=" + errors +
+                '}';
+    }
+
+    /**
+     * Error of a single layout entry
+     */
+    public static class ProvisioningError {
+        private final String entityType;
+        private final String entityId;
+        private final String action;
+        private final String reason;
+
+        public ProvisioningError(String entityType, String entityId, String action, String reason) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.action = action;
+            this.reason = reason;
+        }
+
+        public String getEntityType() {
+            return entityType;
+        }
+
+        public String getEntityId() {
+            return entityId;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "ProvisioningError{" +
+                    "entityType='" + entityType + '\'' +
+                    ", entityId='" + entityId + '\'' +
+                    ", action='" + action + '\'' +
+                    ", reason='" + reason + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.se300.store.service;
+
+import com.se300.store.model.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of authenticated sessions keyed by token. Validating a token is a single
+ * hash lookup. Sessions expire after a fixed time to live and, once the cache is full, the least
+ * recently used sessions are evicted in batches so that the cost of eviction is amortized over inserts
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class SessionCache {
+
+    private static final int TOKEN_BYTES = 32;
+    // Fraction of the capacity freed by a single eviction pass
+    private static final int EVICTION_DIVISOR = 16;
+
+    private final int maxSessions;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Session> sessionMap;
+    private final ReentrantLock evictionLock;
+    private final SecureRandom random;
+
+    /**
+     * Constructor for the SessionCache class using the system clock
+     * @param maxSessions maximum number of sessions kept in the cache
+     * @param ttlMillis time to live of a session in milliseconds
+     */
+    public SessionCache(int maxSessions, long ttlMillis) {
+        this(maxSessions, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for the SessionCache class
+     * @param maxSessions maximum number of sessions kept in the cache
+     * @param ttlMillis time to live of a session in milliseconds
+     * @param clock source of the current time in milliseconds
+     */
+    public SessionCache(int maxSessions, long ttlMillis, LongSupplier clock) {
+        this.maxSessions = maxSessions;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.sessionMap = new ConcurrentHashMap<>();
+        this.evictionLock = new ReentrantLock();
+        this.random = new SecureRandom();
+    }
+
+    /**
+     * Create a new session for the User
+     * @param user
+     * @return token of the session
+     */
+    public String create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        long now = clock.getAsLong();
+        sessionMap.put(token, new Session(token, user, now + ttlMillis, now));
+
+        if (sessionMap.size() > maxSessions) {
+            evict(now);
+        }
+        return token;
+    }
+
+    /**
+     * Get the User of the session
+     * @param token
+     * @return User or null if the token is unknown or the session has expired
+     */
+    public User get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessionMap.get(token);
+        if (session == null) {
+            return null;
+        }
+
+        long now = clock.getAsLong();
+        if (session.expiresAt <= now) {
+            sessionMap.remove(token, session);
+            return null;
+        }
+        //Skip the shared write when the access time has not changed
+        if (session.lastAccess != now) {
+            session.lastAccess = now;
+        }
+        return session.user;
+    }
+
+    /**
+     * Remove the session
+     * @param token
+     * @return true if the session existed
+     */
+    public boolean remove(String token) {
+        return token != null && sessionMap.remove(token) != null;
+    }
+
+    /**
+     * Remove all the sessions of the User, used when the User is changed or deleted
+     * @param email
+     */
+    public void removeUser(String email) {
+        sessionMap.values().removeIf(session -> session.user.getEmail().equals(email));
+    }
+
+    /**
+     * Number of sessions in the cache including the expired ones that have not been evicted yet
+     */
+    public int size() {
+        return sessionMap.size();
+    }
+
+    /**
+     * Remove expired sessions and then the least recently used ones until the cache has room again.
+     * Only one thread evicts at a time, the others keep going
+     */
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            sessionMap.entrySet().removeIf(entry -> entry.getValue().expiresAt <= now);
+
+            int target = maxSessions - Math.max(1, maxSessions / EVICTION_DIVISOR);
+            int excess = sessionMap.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+
+            //Keep the least recently used sessions in a max heap bounded by the number to evict
+            Comparator<Session> byAccess = Comparator.comparingLong(session -> session.lastAccess);
+            PriorityQueue<Session> oldest = new PriorityQueue<>(excess, byAccess.reversed());
+            for (Session session : sessionMap.values()) {
+                if (oldest.size() < excess) {
+                    oldest.add(session);
+                } else if (session.lastAccess < oldest.peek().lastAccess) {
+                    oldest.poll();
+                    oldest.add(session);
+                }
+            }
+            for (Session session : oldest) {
+                sessionMap.remove(session.token, session);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Authenticated session of a User
+     */
+    private static final class Session {
+        private final String token;
+        private final User user;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Session(String token, User user, long expiresAt, long lastAccess) {
+            this.token = token;
+            this.user = user;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
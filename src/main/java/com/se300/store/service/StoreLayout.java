@@ -0,0 +1,282 @@
+package com.se300.store.service;
+
+import com.se300.store.model.AisleLocation;
+import com.se300.store.model.InventoryType;
+import com.se300.store.model.ShelfLevel;
+import com.se300.store.model.Temperature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Store layout describing Aisles, Shelves, Inventory and Devices that are provisioned
+ * in a single call to the StoreService. Entries are applied in the order they were added
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class StoreLayout {
+
+    private String storeId;
+    private String name;
+    private String address;
+    private final List<AisleLayout> aisles = new ArrayList<>();
+    private final List<ShelfLayout> shelves = new ArrayList<>();
+    private final List<InventoryLayout> inventory = new ArrayList<>();
+    private final List<DeviceLayout> devices = new ArrayList<>();
+
+    public StoreLayout() {
+    }
+
+    /**
+     * Constructor for the StoreLayout class. Name and address are only used
+     * when the Store does not exist yet
+     * @param storeId
+     * @param name
+     * @param address
+     */
+    public StoreLayout(String storeId, String name, String address) {
+        this.storeId = storeId;
+        this.name = name;
+        this.address = address;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(String storeId) {
+        this.storeId = storeId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public List<AisleLayout> getAisles() {
+        return aisles;
+    }
+
+    public List<ShelfLayout> getShelves() {
+        return shelves;
+    }
+
+    public List<InventoryLayout> getInventory() {
+        return inventory;
+    }
+
+    public List<DeviceLayout> getDevices() {
+        return devices;
+    }
+
+    /**
+     * Add Aisle to the layout
+     */
+    public void addAisle(String aisleNumber, String name, String description, AisleLocation location) {
+        aisles.add(new AisleLayout(aisleNumber, name, description, location));
+    }
+
+    /**
+     * Add Shelf to the layout
+     */
+    public void addShelf(String aisleNumber, String shelfId, String name, ShelfLevel level,
+                         String description, Temperature temperature) {
+        shelves.add(new ShelfLayout(aisleNumber, shelfId, name, level, description, temperature));
+    }
+
+    /**
+     * Add Inventory slot to the layout
+     */
+    public void addInventory(String inventoryId, String aisleNumber, String shelfId, int capacity,
+                             int count, String productId, InventoryType type) {
+        inventory.add(new InventoryLayout(inventoryId, aisleNumber, shelfId, capacity, count, productId, type));
+    }
+
+    /**
+     * Add Device to the layout
+     */
+    public void addDevice(String deviceId, String name, String deviceType, String aisleNumber) {
+        devices.add(new DeviceLayout(deviceId, name, deviceType, aisleNumber));
+    }
+
+    /**
+     * Aisle entry of the layout
+     */
+    public static class AisleLayout {
+        private String aisleNumber;
+        private String name;
+        private String description;
+        private AisleLocation location;
+
+        public AisleLayout() {
+        }
+
+        public AisleLayout(String aisleNumber, String name, String description, AisleLocation location) {
+            this.aisleNumber = aisleNumber;
+            this.name = name;
+            this.description = description;
+            this.location = location;
+        }
+
+        public String getAisleNumber() {
+            return aisleNumber;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public AisleLocation getLocation() {
+            return location;
+        }
+    }
+
+    /**
+     * Shelf entry of the layout
+     */
+    public static class ShelfLayout {
+        private String aisleNumber;
+        private String shelfId;
+        private String name;
+        private ShelfLevel level;
+        private String description;
+        private Temperature temperature;
+
+        public ShelfLayout() {
+        }
+
+        public ShelfLayout(String aisleNumber, String shelfId, String name, ShelfLevel level,
+                           String description, Temperature temperature) {
+            this.aisleNumber = aisleNumber;
+            this.shelfId = shelfId;
+            this.name = name;
+            this.level = level;
+            this.description = description;
+            this.temperature = temperature;
+        }
+
+        public String getAisleNumber() {
+            return aisleNumber;
+        }
+
+        public String getShelfId() {
+            return shelfId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ShelfLevel getLevel() {
+            return level;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Temperature getTemperature() {
+            return temperature;
+        }
+    }
+
+    /**
+     * Inventory entry of the layout
+     */
+    public static class InventoryLayout {
+        private String inventoryId;
+        private String aisleNumber;
+        private String shelfId;
+        private int capacity;
+        private int count;
+        private String productId;
+        private InventoryType type;
+
+        public InventoryLayout() {
+        }
+
+        public InventoryLayout(String inventoryId, String aisleNumber, String shelfId, int capacity,
+                               int count, String productId, InventoryType type) {
+            this.inventoryId = inventoryId;
+            this.aisleNumber = aisleNumber;
+            this.shelfId = shelfId;
+            this.capacity = capacity;
+            this.count = count;
+            this.productId = productId;
+            this.type = type;
+        }
+
+        public String getInventoryId() {
+            return inventoryId;
+        }
+
+        public String getAisleNumber() {
+            return aisleNumber;
+        }
+
+        public String getShelfId() {
+            return shelfId;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public InventoryType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Device entry of the layout
+     */
+    public static class DeviceLayout {
+        private String deviceId;
+        private String name;
+        private String deviceType;
+        private String aisleNumber;
+
+        public DeviceLayout() {
+        }
+
+        public DeviceLayout(String deviceId, String name, String deviceType, String aisleNumber) {
+            this.deviceId = deviceId;
+            this.name = name;
+            this.deviceType = deviceType;
+            this.aisleNumber = aisleNumber;
+        }
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDeviceType() {
+            return deviceType;
+        }
+
+        public String getAisleNumber() {
+            return aisleNumber;
+        }
+    }
+}
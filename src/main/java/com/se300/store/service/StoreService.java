@@ -1,10 +1,16 @@
 package com.se300.store.service;
 
+import com.se300.store.data.CommandJournal;
+import com.se300.store.data.Page;
 import com.se300.store.model.*;
 import com.se300.store.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This is the main service of the system implementing Command API for processing CLI commands and
@@ -16,70 +22,107 @@ import java.util.stream.Collectors;
  **/
 public class StoreService {
 
-    private static final Map<String, Store> storeMap;
-    private static final Map<String, Customer> customerMap;
-    private static final Map<String, Product> productMap;
-    private static final Map<String, Inventory> inventoryMap;
-    private static final Map<String, Basket> basketMap;
-    private static final Map<String, Device> deviceMap;
+    private static final Logger logger = LoggerFactory.getLogger(StoreService.class);
 
-    // Initialize maps
-    static {
-        storeMap = new HashMap<>();
-        customerMap = new HashMap<>();
-        productMap = new HashMap<>();
-        inventoryMap = new HashMap<>();
-        basketMap = new HashMap<>();
-        deviceMap = new HashMap<>();
+    // Registry is shared by all the StoreService instances
+    private static final EntityRegistry registry = new EntityRegistry();
+
+    // Largest number of operations accepted by a single batch
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    // Set while the current thread runs a mutation, nested mutations leave the journal commit to the outer one
+    private static final ThreadLocal<Boolean> mutating = new ThreadLocal<>();
+
+    /**
+     * Journaled mutations, the ordinal is the operation code stored in the journal
+     * so new operations must only be added at the end
+     */
+    private enum JournalOperation {
+        PROVISION_STORE, PROVISION_AISLE, PROVISION_SHELF, PROVISION_INVENTORY, UPDATE_INVENTORY,
+        PROVISION_PRODUCT, PROVISION_CUSTOMER, UPDATE_CUSTOMER, PROVISION_BASKET, ASSIGN_BASKET,
+        ADD_BASKET_PRODUCT, REMOVE_BASKET_PRODUCT, CLEAR_BASKET, PROVISION_DEVICE, UPDATE_STORE, DELETE_STORE
     }
 
     private final StoreRepository storeRepository;
+    // Optional single writer lanes, when absent mutations run on the calling thread
+    private final StoreWriteLanes writeLanes;
+    // Optional write-ahead journal, when absent mutations are kept in memory only
+    private final CommandJournal journal;
+    // Optional token validation, when absent tokens are not checked
+    private final AuthenticationService authenticationService;
+    // Optional asynchronous event pipeline, when absent events are processed on the calling thread
+    private final DeviceEventPipeline eventPipeline;
+    // Held shared by the journaled mutations and exclusively while a snapshot of the registry is written
+    private static final ReentrantReadWriteLock snapshotBarrier = new ReentrantReadWriteLock();
+    private volatile boolean replaying;
 
     public StoreService() {
-        this.storeRepository = null;
+        this(null, null, null);
     }
 
     public StoreService(StoreRepository storeRepository) {
+        this(storeRepository, null, null);
+    }
+
+    public StoreService(StoreRepository storeRepository, StoreWriteLanes writeLanes) {
+        this(storeRepository, writeLanes, null);
+    }
+
+    public StoreService(StoreRepository storeRepository, StoreWriteLanes writeLanes, CommandJournal journal) {
+        this(storeRepository, writeLanes, journal, null);
+    }
+
+    public StoreService(StoreRepository storeRepository, StoreWriteLanes writeLanes, CommandJournal journal,
+                        AuthenticationService authenticationService) {
+        this(storeRepository, writeLanes, journal, authenticationService, null);
+    }
+
+    public StoreService(StoreRepository storeRepository, StoreWriteLanes writeLanes, CommandJournal journal,
+                        AuthenticationService authenticationService, DeviceEventPipeline eventPipeline) {
         this.storeRepository = storeRepository;
+        this.writeLanes = writeLanes;
+        this.journal = journal;
+        this.authenticationService = authenticationService;
+        this.eventPipeline = eventPipeline;
         // StoreRepository is available for future persistence needs
-        // Currently using static maps for in-memory storage
+        // Currently using the shared EntityRegistry for in-memory storage
     }
 
     /**
-     * Clear all static maps - useful for testing
+     * Clear all registered entities - useful for testing
      */
     public static void clearAllMaps() {
-        storeMap.clear();
-        customerMap.clear();
-        productMap.clear();
-        inventoryMap.clear();
-        basketMap.clear();
-        deviceMap.clear();
+        registry.clear();
     }
 
 
     public Store provisionStore(String storeId, String name, String address, String token)
             throws StoreException {
+        checkToken(token, "Provision Store");
 
-        Store store = new Store(storeId, address, name);
+        return batch(() -> {
+            Store store = new Store(storeId, address, name);
 
-        //If Store already exists throw and exception
-        if (storeMap.putIfAbsent(storeId, store) != null) {
-            throw new StoreException("Provision Store", "Store Already Exists");
-        }
+            //If Store already exists throw and exception
+            if (registry.putStoreIfAbsent(store) != null) {
+                throw new StoreException("Provision Store", "Store Already Exists");
+            }
 
-        // Also save to repository if available
-        if (storeRepository != null) {
-            storeRepository.save(store);
-        }
+            // Also save to repository if available
+            if (storeRepository != null) {
+                storeRepository.save(store);
+            }
 
-        return store;
+            journal(JournalOperation.PROVISION_STORE, storeId, name, address);
+            return store;
+        });
     }
 
     public Store showStore(String storeId, String token) throws StoreException {
+        checkToken(token, "Show Store");
 
         //If Store does not exist throw and exception
-        Store store = storeMap.get(storeId);
+        Store store = registry.getStore(storeId);
         if(store == null)
             throw new StoreException("Show Store", "Store Does Not Exist");
 
@@ -88,22 +131,28 @@ public class StoreService {
 
     public Aisle provisionAisle(String storeId, String aisleNumber, String name, String description,
                                 AisleLocation location, String token) throws StoreException {
+        checkToken(token, "Provision Aisle");
+        //Apply the mutation on the lane of the Store
+        return write(storeId, () -> {
+            Store store = registry.getStore(storeId);
+            Aisle aisle;
+
+            //Check to see if Store already exists;
+            if(store == null){
+                throw new StoreException("Provision Aisle", "Store Does Not Exist");
+            } else {
+                aisle = store.addAisle(aisleNumber, name, description, location);
+            }
 
-        Store store = storeMap.get(storeId);
-        Aisle aisle;
-
-        //Check to see if Store already exists;
-        if(store == null){
-            throw new StoreException("Provision Aisle", "Store Does Not Exist");
-        } else {
-            aisle = store.addAisle(aisleNumber, name, description, location);
-        }
+            journal(JournalOperation.PROVISION_AISLE, storeId, aisleNumber, name, description, name(location));
 
-        return aisle;
+            return aisle;
+        });
     }
 
     public Aisle showAisle(String storeId, String aisleNumber, String token) throws StoreException {
-        Store store = storeMap.get(storeId);
+        checkToken(token, "Show Aisle");
+        Store store = registry.getStore(storeId);
         Aisle aisle;
         //Check to see if Store exists
         if(store == null){
@@ -120,34 +169,41 @@ public class StoreService {
 
     public Shelf provisionShelf(String storeId, String aisleNumber, String shelfId, String name,
                                 ShelfLevel level, String description, Temperature temperature, String token) throws StoreException {
-
-        Store store = storeMap.get(storeId);
-        Shelf shelf;
-
-        //Check to see if Store exists
-        if(store == null){
-            throw new StoreException("Provision Shelf", "Store Does Not Exist");
-        } else {
-            Aisle aisle = store.getAisle(aisleNumber);
-            //Check to see if Aisle exists
-            if (aisle == null){
-                throw new StoreException("Provision Shelf", "Aisle Does Not Exist");
+        checkToken(token, "Provision Shelf");
+        //Apply the mutation on the lane of the Store
+        return write(storeId, () -> {
+            Store store = registry.getStore(storeId);
+            Shelf shelf;
+
+            //Check to see if Store exists
+            if(store == null){
+                throw new StoreException("Provision Shelf", "Store Does Not Exist");
             } else {
-                shelf = aisle.getShelf(shelfId);
-                //Check to see if Shelf exists
-                if(shelf != null){
-                    throw new StoreException("Provision Shelf", "Shelf Already Exists");
-                }
+                Aisle aisle = store.getAisle(aisleNumber);
+                //Check to see if Aisle exists
+                if (aisle == null){
+                    throw new StoreException("Provision Shelf", "Aisle Does Not Exist");
+                } else {
+                    shelf = aisle.getShelf(shelfId);
+                    //Check to see if Shelf exists
+                    if(shelf != null){
+                        throw new StoreException("Provision Shelf", "Shelf Already Exists");
+                    }
 
-                //Add Shelf to the Aisle
-                shelf = aisle.addShelf(shelfId, name, level, description, temperature);
+                    //Add Shelf to the Aisle
+                    shelf = aisle.addShelf(shelfId, name, level, description, temperature);
+                }
             }
-        }
-        return shelf;
+
+            journal(JournalOperation.PROVISION_SHELF, storeId, aisleNumber, shelfId, name, name(level),
+                    description, name(temperature));
+            return shelf;
+        });
     }
 
     public Shelf showShelf(String storeId, String aisleNumber, String shelfId, String token) throws StoreException {
-        Store store = storeMap.get(storeId);
+        checkToken(token, "Show Shelf");
+        Store store = registry.getStore(storeId);
         Shelf shelf;
 
         //Check to see if Store exists
@@ -171,52 +227,65 @@ public class StoreService {
 
     public Inventory provisionInventory(String inventoryId, String storeId, String aisleNumber, String shelfId,
                                         int capacity, int count, String productId, InventoryType type, String token) throws StoreException {
-
-        Store store = storeMap.get(storeId);
-        Product product = productMap.get(productId);
-        Inventory inventory;
-
-        //Check to see if Store exists
-        if(store == null){
-            throw new StoreException("Provision Inventory", "Store Does Not Exist");
-        } else {
-            //Check to see if Aisle exists
-            Aisle aisle = store.getAisle(aisleNumber);
-            if (aisle == null){
-                throw new StoreException("Provision Inventory", "Aisle Does Not Exist");
+        checkToken(token, "Provision Inventory");
+        //Apply the mutation on the lane of the Store
+        return write(storeId, () -> {
+            Store store = registry.getStore(storeId);
+            Product product = registry.getProduct(productId);
+            Inventory inventory;
+
+            //Check to see if Store exists
+            if(store == null){
+                throw new StoreException("Provision Inventory", "Store Does Not Exist");
             } else {
-                //Check to see if Shelf exists
-                Shelf shelf = aisle.getShelf(shelfId);
-                if(shelf == null){
-                    throw new StoreException("Provision Inventory", "Shelf Does Not Exist");
-                } else if(product == null){
-                    //Check to see if Product exists
-                    throw new StoreException("Provision Inventory", "Product Does Not Exist");
-                } else if(!shelf.getTemperature().equals(product.getTemperature())){
-                    //Make sure that Product Temperature and Shelf Temperature are consistent
-                    throw new StoreException("Provision Inventory", "Product and Shelf Temperature " +
-                            "Is Not Consistent");
-                }
+                //Check to see if Aisle exists
+                Aisle aisle = store.getAisle(aisleNumber);
+                if (aisle == null){
+                    throw new StoreException("Provision Inventory", "Aisle Does Not Exist");
+                } else {
+                    //Check to see if Shelf exists
+                    Shelf shelf = aisle.getShelf(shelfId);
+                    if(shelf == null){
+                        throw new StoreException("Provision Inventory", "Shelf Does Not Exist");
+                    } else if(product == null){
+                        //Check to see if Product exists
+                        throw new StoreException("Provision Inventory", "Product Does Not Exist");
+                    } else if(!shelf.getTemperature().equals(product.getTemperature())){
+                        //Make sure that Product Temperature and Shelf Temperature are consistent
+                        throw new StoreException("Provision Inventory", "Product and Shelf Temperature " +
+                                "Is Not Consistent");
+                    } else if(registry.getInventory(inventoryId) != null){
+                        //Inventory ids are unique across the Stores
+                        throw new StoreException("Provision Inventory", "Inventory Already Exists");
+                    }
 
-                //Add Inventory to the Shelf
-                inventory = shelf.addInventory(inventoryId, storeId, aisleNumber, shelfId,
-                        capacity, count, productId, type);
+                    //Add Inventory to the Shelf
+                    inventory = shelf.addInventory(inventoryId, storeId, aisleNumber, shelfId,
+                            capacity, count, productId, type);
 
-                //Add Inventory to the global Inventory Map
-                inventoryMap.put(inventoryId, inventory);
+                    //Add Inventory to the Store shard of the registry, another Store may have taken the id meanwhile
+                    if (!registry.registerInventory(storeId, inventory)) {
+                        shelf.removeInventory(inventoryId);
+                        throw new StoreException("Provision Inventory", "Inventory Already Exists");
+                    }
 
-                //Add Inventory to the Store
-                store.addInventory(inventory);
+                    //Add Inventory to the Store
+                    store.addInventory(inventory);
 
+                }
             }
-        }
 
-        return inventory;
+            journal(JournalOperation.PROVISION_INVENTORY, inventoryId, storeId, aisleNumber, shelfId,
+                    Integer.toString(capacity), Integer.toString(count), productId, name(type));
+
+            return inventory;
+        });
     }
 
     public Inventory showInventory(String inventoryId, String token) throws StoreException {
+        checkToken(token, "Show Inventory");
 
-        Inventory inventory = inventoryMap.get(inventoryId);
+        Inventory inventory = registry.getInventory(inventoryId);
         //Check to see if Inventory exists
         if (inventory == null)
             throw new StoreException("Show Inventory", "Inventory Does Not Exist");
@@ -224,30 +293,40 @@ public class StoreService {
     }
 
     public Inventory updateInventory(String inventoryId, int count, String token) throws StoreException {
-        Inventory inventory = inventoryMap.get(inventoryId);
+        checkToken(token, "Update Inventory");
+        Inventory inventory = registry.getInventory(inventoryId);
         //Check to see if Inventory exists
         if (inventory == null)
             throw new StoreException("Update Inventory", "Inventory Does Not Exist");
 
-        //Update Inventory count
-        inventory.updateInventory(count);
-
-        return inventory;
+        //Update Inventory count on the lane of the Store that owns the Inventory
+        return write(inventory.getInventoryLocation().getStoreId(), () -> {
+            inventory.updateInventory(count);
+            journal(JournalOperation.UPDATE_INVENTORY, inventoryId, Integer.toString(count));
+            return inventory;
+        });
     }
 
     public Product provisionProduct(String productId, String name, String description, String size, String category,
                                     double price, Temperature temperature, String token) throws StoreException {
-        Product product = new Product(productId, name, description, size, category, price, temperature);
+        checkToken(token, "Provision Product");
 
-        //Check to see if Product already exists
-        if (productMap.putIfAbsent(productId, product) != null)
-            throw new StoreException("Provision Product", "Product Already Exists");
+        return batch(() -> {
+            Product product = new Product(productId, name, description, size, category, price, temperature);
 
-        return product;
+            //Check to see if Product already exists
+            if (registry.putProductIfAbsent(product) != null)
+                throw new StoreException("Provision Product", "Product Already Exists");
+
+            journal(JournalOperation.PROVISION_PRODUCT, productId, name, description, size, category,
+                    Double.toString(price), name(temperature));
+            return product;
+        });
     }
 
     public Product showProduct(String productId, String token) throws StoreException {
-        Product product = productMap.get(productId);
+        checkToken(token, "Show Product");
+        Product product = registry.getProduct(productId);
         //Check to see if Product exists
         if (product == null)
             throw new StoreException("Show Product", "Product Does Not Exist");
@@ -258,72 +337,112 @@ public class StoreService {
     public Customer provisionCustomer(String customerId, String firstName, String lastName,
                                       CustomerType type, String email, String address, String token)
             throws StoreException {
+        checkToken(token, "Provision Customer");
 
-        Customer customer = new Customer(customerId, firstName, lastName, type, email, address);
-        //Check to see if the Customer already exists
-        if(customerMap.putIfAbsent(customerId, customer) != null)
-            throw new StoreException("Provision Customer", "Customer Already Exists");
+        return batch(() -> {
+            Customer customer = new Customer(customerId, firstName, lastName, type, email, address);
+            //Check to see if the Customer already exists
+            if(registry.putCustomerIfAbsent(customer) != null)
+                throw new StoreException("Provision Customer", "Customer Already Exists");
 
-        return customer;
+            journal(JournalOperation.PROVISION_CUSTOMER, customerId, firstName, lastName, name(type), email, address);
+            return customer;
+        });
     }
 
     public Customer updateCustomer(String customerId, String storeId, String aisleNumber, String token)
             throws StoreException {
-        Store store = storeMap.get(storeId);
-        Customer customer;
-
-        //Check to see if the Store exists
-        if(store == null){
-            throw new StoreException("Update Customer", "Store Does Not Exist");
-        } else {
-            //Check to see if Aisle exists
-            Aisle aisle = store.getAisle(aisleNumber);
-            if (aisle == null){
-                throw new StoreException("Update Customer", "Aisle Does Not Exist");
-            } else {
-                //Check to see if Customer exists
-                customer = customerMap.get(customerId);
-                if(customer == null){
-                    throw new StoreException("Update Customer", "Customer Does Not Exist");
-                }
-            }
+        checkToken(token, "Update Customer");
+        Customer moving = getMovingCustomer(customerId, storeId, aisleNumber);
+
+        //Leave the Store the Customer was in on its lane, then enter the new Store on the lane of the new Store.
+        //Moves of the same Customer are serialized so that a move never leaves a Store before the previous
+        //move has entered it, the lane actions never lock the Customer
+        synchronized (moving) {
+            return batch(() -> updateCustomerLocation(customerId, storeId, aisleNumber));
         }
+    }
 
-        //Check to see if Customer changing Stores
-        if(customer.getStoreLocation() != null && !customer.getStoreLocation().getStoreId().equals(storeId)){
-            //Check to see if Customer already exists in other Stores
-            Map<Store, Customer> customerStores  = storeMap.entrySet()
-                    .stream()
-                    .filter(tempStore -> (tempStore.getValue().getCustomer(customerId) != null && tempStore.getValue().getCustomer(customerId).getId().equals(customerId)))
-                    .collect(Collectors.toMap(Map.Entry::getValue, tempStore -> tempStore.getValue().
-                            getCustomer(customerId)));
-
-            //If Customer exist in other stores remove him/her
-            customerStores.forEach((key, value) -> key.removeCustomer(customer));
+    /**
+     * Helper method moving the Customer, runs while the Customer is locked
+     */
+    private Customer updateCustomerLocation(String customerId, String storeId, String aisleNumber)
+            throws StoreException {
+        String currentStoreId = registry.getCustomerStoreId(customerId);
+        boolean changingStores = currentStoreId != null && !currentStoreId.equals(storeId);
+        if(changingStores)
+            write(currentStoreId, () -> leaveStore(customerId, currentStoreId, storeId, aisleNumber));
 
-            //Before Customer can change the Store he/she must clear the Basket
-            if(customer.getBasket() != null)
-                customer.getBasket().clearBasket();
+        return write(storeId, () -> {
+            Customer customer = getMovingCustomer(customerId, storeId, aisleNumber);
 
-            //If the Customer moves to a different Store clear out the basket and the time seen
-            customer.assignBasket(null);
-            customer.setLastSeen(null);
+            //Customer entering a Store for the first time claims the move in the customer location index
+            if(currentStoreId == null && !registry.moveCustomer(customerId, null, storeId))
+                throw new StoreException("Update Customer", "Customer Is Being Moved");
 
-            //Add Customer to another store
-            store.addCustomer(customer);
-        } else {
+            //Add Customer to the Store he/she entered
+            if(!storeId.equals(currentStoreId))
+                registry.getStore(storeId).addCustomer(customer);
 
+            //If the Customer moves to a different Store clear out the time seen
             customer.setStoreLocation(new StoreLocation(storeId, aisleNumber));
-            customer.setLastSeen(new Date(System.currentTimeMillis()));
-        }
+            customer.setLastSeen(changingStores ? null : new Date(System.currentTimeMillis()));
+
+            journal(JournalOperation.UPDATE_CUSTOMER, customerId, storeId, aisleNumber);
+            return customer;
+        });
+    }
+
+    /**
+     * Helper method removing the Customer from the Store he/she was last seen in, runs on the lane of that Store
+     */
+    private Void leaveStore(String customerId, String currentStoreId, String storeId, String aisleNumber)
+            throws StoreException {
+        Customer customer = getMovingCustomer(customerId, storeId, aisleNumber);
+
+        //Claim the move in the customer location index, fails if the index changed since it was read
+        if(!registry.moveCustomer(customerId, currentStoreId, storeId))
+            throw new StoreException("Update Customer", "Customer Is Being Moved");
+
+        Store currentStore = registry.getStore(currentStoreId);
+        if(currentStore != null)
+            currentStore.removeCustomer(customer);
+
+        //Before Customer can change the Store he/she must clear the Basket
+        if(customer.getBasket() != null)
+            customer.getBasket().clearBasket();
+
+        //If the Customer moves to a different Store clear out the basket
+        customer.assignBasket(null);
+        return null;
+    }
+
+    /**
+     * Helper method checking that the Customer, the Store and the Aisle the Customer moves to exist
+     */
+    private Customer getMovingCustomer(String customerId, String storeId, String aisleNumber) throws StoreException {
+        Store store = registry.getStore(storeId);
 
+        //Check to see if the Store exists
+        if(store == null)
+            throw new StoreException("Update Customer", "Store Does Not Exist");
+
+        //Check to see if Aisle exists
+        if(store.getAisle(aisleNumber) == null)
+            throw new StoreException("Update Customer", "Aisle Does Not Exist");
+
+        //Check to see if Customer exists
+        Customer customer = registry.getCustomer(customerId);
+        if(customer == null)
+            throw new StoreException("Update Customer", "Customer Does Not Exist");
         return customer;
     }
 
     public Customer showCustomer(String customerId, String token) throws StoreException {
+        checkToken(token, "Show Customer");
 
         //Check to see if the Customer exists
-        Customer customer = customerMap.get(customerId);
+        Customer customer = registry.getCustomer(customerId);
         if(customer == null)
             throw new StoreException("Show Customer", "Customer Does Not Exist");
 
@@ -331,19 +450,24 @@ public class StoreService {
     }
 
     public Basket provisionBasket(String basketId, String token) throws StoreException {
+        checkToken(token, "Provision Basket");
 
-        Basket basket = new Basket(basketId);
-        //Check if Basket already exists
-        if(basketMap.putIfAbsent(basketId, basket) != null)
-            throw new StoreException("Provision Basket", "Basket Already Exists");
+        return batch(() -> {
+            Basket basket = new Basket(basketId);
+            //Check if Basket already exists
+            if(registry.putBasketIfAbsent(basket) != null)
+                throw new StoreException("Provision Basket", "Basket Already Exists");
 
-        return basket;
+            journal(JournalOperation.PROVISION_BASKET, basketId);
+            return basket;
+        });
     }
 
     public Basket assignCustomerBasket(String customerId, String basketId, String token) throws StoreException {
+        checkToken(token, "Assign Customer Basket");
 
-        Customer customer = customerMap.get(customerId);
-        Basket basket = basketMap.get(basketId);
+        Customer customer = registry.getCustomer(customerId);
+        Basket basket = registry.getBasket(basketId);
 
         //Check to see Customer and the Basket already exist
         if(customer == null){
@@ -354,24 +478,28 @@ public class StoreService {
             }
         }
 
-        //Assign Basket to the Customer
-        customer.assignBasket(basket);
-        //Keep the global copy of all the baskets
-        basketMap.put(basketId, basket);
+        //Assign Basket on the lane of the Store where the Customer is located
+        String storeId = customer.getStoreLocation() == null ? null : customer.getStoreLocation().getStoreId();
+        return write(storeId, () -> {
+            //Assign Basket to the Customer
+            customer.assignBasket(basket);
 
-        Store store = storeMap.get(customerMap.get(customerId).getStoreLocation().getStoreId());
+            Store store = registry.getStore(customer.getStoreLocation().getStoreId());
 
-        //Associate basket with the customer
-        basket.setCustomer(customer);
-        //Create bidirectional association between Store and the Basket
-        basket.setStore(store);
-        store.addBasket(basket);
+            //Associate basket with the customer
+            basket.setCustomer(customer);
+            //Create bidirectional association between Store and the Basket
+            basket.setStore(store);
+            store.addBasket(basket);
 
-        return basket;
+            journal(JournalOperation.ASSIGN_BASKET, customerId, basketId);
+            return basket;
+        });
     }
 
     public Basket getCustomerBasket(String customerId, String token) throws StoreException {
-        Customer customer = customerMap.get(customerId);
+        checkToken(token, "Get Customer Basket");
+        Customer customer = registry.getCustomer(customerId);
         Basket basket;
 
         //Check if Customer exists
@@ -389,8 +517,9 @@ public class StoreService {
 
     public Basket addBasketProduct(String basketId, String productId, int count, String token)
             throws StoreException {
-        Basket basket = basketMap.get(basketId);
-        Product product = productMap.get(productId);
+        checkToken(token, "Add Basket Product");
+        Basket basket = registry.getBasket(basketId);
+        Product product = registry.getProduct(productId);
 
         //Check to see if basket already exists product we are trying to add to the basket
         //exists as well and basket has been assigned to the customer
@@ -401,15 +530,18 @@ public class StoreService {
         } else if(basket.getCustomer() == null){
             throw new StoreException("Add Basket Product", "Basket Has Not Being Assigned");
         }
-        //Add a product to the basket
-        basket.addProduct(productId, count);
-
-        return basket;
+        //Add a product to the basket on the lane of the Store
+        return write(getStoreId(basket), () -> {
+            basket.addProduct(productId, count);
+            journal(JournalOperation.ADD_BASKET_PRODUCT, basketId, productId, Integer.toString(count));
+            return basket;
+        });
     }
 
     public Basket removeBasketProduct(String basketId, String productId, int count, String token) throws StoreException {
-        Basket basket = basketMap.get(basketId);
-        Product product = productMap.get(productId);
+        checkToken(token, "Remove Basket Product");
+        Basket basket = registry.getBasket(basketId);
+        Product product = registry.getProduct(productId);
 
         //Check to see if basket already exists product we are trying to add to the basket
         //exists as well and basket has been assigned to the customer
@@ -420,15 +552,18 @@ public class StoreService {
         } else if(basket.getCustomer() == null){
             throw new StoreException("Remove Basket Product", "Basket Has Not Being Assigned");
         }
-        //Remove product from the basket
-        basket.removeProduct(productId, count);
-
-        return basket;
+        //Remove product from the basket on the lane of the Store
+        return write(getStoreId(basket), () -> {
+            basket.removeProduct(productId, count);
+            journal(JournalOperation.REMOVE_BASKET_PRODUCT, basketId, productId, Integer.toString(count));
+            return basket;
+        });
     }
 
     public Basket clearBasket(String basketId, String token) throws StoreException {
+        checkToken(token, "Clear Basket");
 
-        Basket basket = basketMap.get(basketId);
+        Basket basket = registry.getBasket(basketId);
 
         //Check to see if basket already exists and basket has been assigned to the customer
         if(basket == null){
@@ -436,13 +571,17 @@ public class StoreService {
         } else if(basket.getCustomer() == null){
             throw new StoreException("Clear Basket", "Basket Has Not Being Assigned");
         }
-        basket.clearBasket();
-
-        return basket;
+        //Clear the basket on the lane of the Store
+        return write(getStoreId(basket), () -> {
+            basket.clearBasket();
+            journal(JournalOperation.CLEAR_BASKET, basketId);
+            return basket;
+        });
     }
 
     public Basket showBasket(String basketId, String token) throws StoreException {
-        Basket basket = basketMap.get(basketId);
+        checkToken(token, "Show Basket Product");
+        Basket basket = registry.getBasket(basketId);
 
         //Check to see if basket already exists
         if(basket == null){
@@ -456,53 +595,250 @@ public class StoreService {
 
     public Device provisionDevice(String deviceId, String name, String deviceType, String storeId,
                                   String aisleNumber, String token) throws StoreException {
+        checkToken(token, "Provision Device");
+        //Apply the mutation on the lane of the Store
+        return write(storeId, () -> {
+            Store store = registry.getStore(storeId);
+            Device device;
+            StoreLocation storeLocation;
+
+            //Check to see if store exists
+            if(store == null){
+                throw new StoreException("Provision Device", "Store Does Not Exist");
+            } else {
 
-        Store store = storeMap.get(storeId);
-        Device device;
-        StoreLocation storeLocation;
+                //Check to see if aisle exists
+                Aisle aisle = store.getAisle(aisleNumber);
+                if (aisle == null){
+                    throw new StoreException("Provision Device", "Aisle Does Not Exist");
+                } else {
+                    storeLocation = new StoreLocation(storeId, aisleNumber);
+
+                    //Check to see if device already exists
+                    device = registry.getDevice(deviceId);
+                    if(device != null){
+                        throw new StoreException("Provision Device", "Device Already Exists");
+                    }
 
-        //Check to see if store exists
-        if(store == null){
-            throw new StoreException("Provision Device", "Store Does Not Exist");
-        } else {
+                    //Determine wha type of device we are trying to add
+                    for (SensorType sensor : SensorType.values()) {
+                        if (sensor.name().equals(deviceType)){
+                            device = new Sensor (deviceId, name, storeLocation, deviceType);
+                        }
+                    }
+                    for (ApplianceType appliance : ApplianceType.values()) {
+                        if (appliance.name().equals(deviceType)){
+                            device = new Appliance(deviceId, name, storeLocation, deviceType);
+                        }
+                    }
 
-            //Check to see if aisle exists
-            Aisle aisle = store.getAisle(aisleNumber);
-            if (aisle == null){
-                throw new StoreException("Provision Device", "Aisle Does Not Exist");
-            } else {
-                storeLocation = new StoreLocation(storeId, aisleNumber);
+                    //Make sure that the device type is known
+                    if(device == null){
+                        throw new StoreException("Provision Device", "Device Type Does Not Exist");
+                    }
+
+                    //Add device to the Store shard of the registry
+                    if(!registry.registerDevice(storeId, device)){
+                        throw new StoreException("Provision Device", "Device Already Exists");
+                    }
+                    //Add device to the local store
+                    store.addDevice(device);
 
-                //Check to see if device already exists
-                device = deviceMap.get(deviceId);
-                if(device != null){
-                    throw new StoreException("Provision Device", "Device Already Exists");
                 }
+            }
 
-                //Determine wha type of device we are trying to add
-                for (SensorType sensor : SensorType.values()) {
-                    if (sensor.name().equals(deviceType)){
-                        device = new Sensor (deviceId, name, storeLocation, deviceType);
-                    }
+            journal(JournalOperation.PROVISION_DEVICE, deviceId, name, deviceType, storeId, aisleNumber);
+            return device;
+        });
+    }
+
+    /**
+     * Provision the whole Store layout in a single pass. The Store itself is provisioned first if it
+     * does not exist yet. Every valid entry is applied and every invalid one is reported in the
+     * result instead of throwing StoreException
+     */
+    public ProvisioningResult provisionLayout(StoreLayout layout, String token) throws StoreException {
+        checkToken(token, "Provision Layout");
+
+        String storeId = layout.getStoreId();
+        if (storeId == null) {
+            throw new StoreException("Provision Layout", "Store Id Is Required");
+        }
+
+        //Provision the Store if it does not exist yet, it might be provisioned concurrently
+        if (registry.getStore(storeId) == null) {
+            try {
+                provisionStore(storeId, layout.getName(), layout.getAddress(), token);
+            } catch (StoreException e) {
+                //Store has been provisioned by another request in the meantime, anything else is fatal
+                if (!"Store Already Exists".equals(e.getReason())) {
+                    throw e;
                 }
-                for (ApplianceType appliance : ApplianceType.values()) {
-                    if (appliance.name().equals(deviceType)){
-                        device = new Appliance(deviceId, name, storeLocation, deviceType);
-                    }
+            }
+        }
+
+        //Apply all the entries as a single mutation on the lane of the Store
+        return write(storeId, () -> {
+            ProvisioningResult result = new ProvisioningResult(storeId);
+
+            for (StoreLayout.AisleLayout aisle : layout.getAisles()) {
+                try {
+                    requireIds("Provision Aisle", aisle.getAisleNumber());
+                    provisionAisle(storeId, aisle.getAisleNumber(), aisle.getName(), aisle.getDescription(),
+                            aisle.getLocation(), token);
+                    result.aisleProvisioned();
+                } catch (StoreException e) {
+                    requireEntryError(e);
+                    result.addError("aisle", aisle.getAisleNumber(), e);
                 }
+            }
+
+            for (StoreLayout.ShelfLayout shelf : layout.getShelves()) {
+                try {
+                    requireIds("Provision Shelf", shelf.getAisleNumber(), shelf.getShelfId());
+                    provisionShelf(storeId, shelf.getAisleNumber(), shelf.getShelfId(), shelf.getName(),
+                            shelf.getLevel(), shelf.getDescription(), shelf.getTemperature(), token);
+                    result.shelfProvisioned();
+                } catch (StoreException e) {
+                    requireEntryError(e);
+                    result.addError("shelf", shelf.getShelfId(), e);
+                }
+            }
 
-                //Add device to the global map
-                deviceMap.put(deviceId,device);
-                //Add device to the local store
-                store.addDevice(device);
+            for (StoreLayout.InventoryLayout inventory : layout.getInventory()) {
+                try {
+                    requireIds("Provision Inventory", inventory.getInventoryId(), inventory.getAisleNumber(),
+                            inventory.getShelfId(), inventory.getProductId());
+                    provisionInventory(inventory.getInventoryId(), storeId, inventory.getAisleNumber(),
+                            inventory.getShelfId(), inventory.getCapacity(), inventory.getCount(),
+                            inventory.getProductId(), inventory.getType(), token);
+                    result.inventoryProvisioned();
+                } catch (StoreException e) {
+                    requireEntryError(e);
+                    result.addError("inventory", inventory.getInventoryId(), e);
+                }
+            }
 
+            for (StoreLayout.DeviceLayout device : layout.getDevices()) {
+                try {
+                    requireIds("Provision Device", device.getDeviceId(), device.getAisleNumber());
+                    provisionDevice(device.getDeviceId(), device.getName(), device.getDeviceType(), storeId,
+                            device.getAisleNumber(), token);
+                    result.deviceProvisioned();
+                } catch (StoreException e) {
+                    requireEntryError(e);
+                    result.addError("device", device.getDeviceId(), e);
+                }
             }
+
+            return result;
+        });
+    }
+
+    /**
+     * Apply a batch of operations to a single Store. All the operations run as one mutation on the
+     * lane of the Store and the journal is committed once for the whole batch. Every operation gets
+     * its own result, failed operations do not stop the following ones
+     */
+    public List<BatchResult> applyStoreBatch(String storeId, List<BatchOperation> operations, String token)
+            throws StoreException {
+        checkToken(token, "Apply Store Batch");
+        checkBatchSize("Apply Store Batch", operations);
+
+        if (registry.getStore(storeId) == null) {
+            throw new StoreException("Apply Store Batch", "Store Does Not Exist");
+        }
+
+        return write(storeId, () -> {
+            List<BatchResult> results = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                try {
+                    applyStoreOperation(storeId, operation, token);
+                    results.add(BatchResult.success(i, operation.getOp(), operation.getEntityId()));
+                } catch (StoreException e) {
+                    results.add(BatchResult.failure(i, operation.getOp(), operation.getEntityId(), e));
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Update the count of many Inventory items, possibly of different Stores. Each update runs on the
+     * lane of the Store that owns the Inventory and the journal is committed once for the whole batch
+     */
+    public List<BatchResult> updateInventoryBatch(List<BatchOperation> updates, String token)
+            throws StoreException {
+        checkToken(token, "Update Inventory Batch");
+        checkBatchSize("Update Inventory Batch", updates);
+
+        List<BatchResult> results = new ArrayList<>(updates.size());
+        batch(() -> {
+            for (int i = 0; i < updates.size(); i++) {
+                BatchOperation update = updates.get(i);
+                try {
+                    requireIds("Update Inventory", update.getInventoryId());
+                    updateInventory(update.getInventoryId(), update.getCount(), token);
+                    results.add(BatchResult.success(i, BatchOperation.UPDATE_INVENTORY, update.getInventoryId()));
+                } catch (StoreException e) {
+                    results.add(BatchResult.failure(i, BatchOperation.UPDATE_INVENTORY, update.getInventoryId(), e));
+                }
+            }
+            return results;
+        });
+        return results;
+    }
+
+    /**
+     * Apply a single batch operation, runs on the lane of the Store
+     */
+    private void applyStoreOperation(String storeId, BatchOperation operation, String token)
+            throws StoreException {
+        String op = operation.getOp();
+        if (op == null) {
+            throw new StoreException("Apply Store Batch", "Operation Is Missing");
+        }
+
+        switch (op) {
+            case BatchOperation.PROVISION_AISLE -> {
+                requireIds("Provision Aisle", operation.getAisleNumber());
+                provisionAisle(storeId, operation.getAisleNumber(), operation.getName(),
+                        operation.getDescription(), operation.getLocation(), token);
+            }
+            case BatchOperation.PROVISION_SHELF -> {
+                requireIds("Provision Shelf", operation.getAisleNumber(), operation.getShelfId());
+                provisionShelf(storeId, operation.getAisleNumber(), operation.getShelfId(), operation.getName(),
+                        operation.getLevel(), operation.getDescription(), operation.getTemperature(), token);
+            }
+            case BatchOperation.PROVISION_INVENTORY -> {
+                requireIds("Provision Inventory", operation.getInventoryId(), operation.getAisleNumber(),
+                        operation.getShelfId(), operation.getProductId());
+                provisionInventory(operation.getInventoryId(), storeId, operation.getAisleNumber(),
+                        operation.getShelfId(), operation.getCapacity(), operation.getCount(),
+                        operation.getProductId(), operation.getType(), token);
+            }
+            case BatchOperation.UPDATE_INVENTORY -> {
+                requireIds("Update Inventory", operation.getInventoryId());
+                //Only Inventory of this Store, the lane of another Store can not be entered from here
+                Inventory inventory = registry.getInventory(operation.getInventoryId());
+                if (inventory == null || !storeId.equals(inventory.getInventoryLocation().getStoreId())) {
+                    throw new StoreException("Update Inventory", "Inventory Does Not Exist");
+                }
+                updateInventory(operation.getInventoryId(), operation.getCount(), token);
+            }
+            case BatchOperation.PROVISION_DEVICE -> {
+                requireIds("Provision Device", operation.getDeviceId(), operation.getAisleNumber());
+                provisionDevice(operation.getDeviceId(), operation.getName(), operation.getDeviceType(), storeId,
+                        operation.getAisleNumber(), token);
+            }
+            default -> throw new StoreException("Apply Store Batch", "Operation Does Not Exist");
         }
-        return device;
     }
 
     public Device showDevice(String deviceId, String token) throws StoreException {
-        Device device = deviceMap.get(deviceId);
+        checkToken(token, "Show Device");
+        Device device = registry.getDevice(deviceId);
 
         //Check to see if device exists
         if(device == null)
@@ -511,71 +847,433 @@ public class StoreService {
         return device;
     }
 
+    /**
+     * Get the raw readings of the Sensor taken within the range
+     * @param from inclusive epoch milliseconds
+     * @param to exclusive epoch milliseconds
+     */
+    public SensorSeries.Readings getSensorReadings(String deviceId, long from, long to, String token)
+            throws StoreException {
+        checkToken(token, "Show Sensor Readings");
+        return getSensor(deviceId, "Show Sensor Readings").getSeries().getReadings(from, to);
+    }
+
+    /**
+     * Get the rollups of the Sensor readings overlapping the range
+     * @param from inclusive epoch milliseconds
+     * @param to exclusive epoch milliseconds
+     */
+    public List<SensorSeries.Rollup> getSensorRollups(String deviceId, SensorSeries.Resolution resolution,
+                                                      long from, long to, String token) throws StoreException {
+        checkToken(token, "Show Sensor Rollups");
+        return getSensor(deviceId, "Show Sensor Rollups").getSeries().getRollups(resolution, from, to);
+    }
+
     public void raiseEvent(String deviceId, String event, String token) throws StoreException {
-        Device device = deviceMap.get(deviceId);
+        checkToken(token, "Raise Event");
+        Device device = registry.getDevice(deviceId);
 
         //Check to see if a device exists
         if(device == null){
             throw new StoreException("Raise Event", "Device Does Not Exist");
         }
+
+        //Hand the event over to the pipeline, the Device processes it on a consumer thread
+        if (eventPipeline != null) {
+            if (!eventPipeline.publish(device, event)) {
+                throw new StoreException("Raise Event", "Event Queue Is Full");
+            }
+            return;
+        }
         device.processEvent(event);
 
     }
 
     public void issueCommand(String deviceId, String command, String token) throws StoreException {
+        checkToken(token, "Issue Command");
 
-        Appliance appliance = (Appliance) deviceMap.get(deviceId);
+        Device device = registry.getDevice(deviceId);
 
         //Check to see if the appliance exists
-        if(appliance == null){
+        if(device == null){
             throw new StoreException("Issue Command", "Device Does Not Exist");
         }
+        if(!(device instanceof Appliance appliance)){
+            throw new StoreException("Issue Command", "Device Is Not An Appliance");
+        }
         appliance.processCommand(command);
     }
 
     /**
      * Get all stores
      */
-    public Collection<Store> getAllStores() {
-        return storeMap.values();
+    public Collection<Store> getAllStores(String token) throws StoreException {
+        checkToken(token, "List Stores");
+        return registry.getStores();
+    }
+
+    /**
+     * Get a page of stores ordered by ID
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @param limit maximum number of stores
+     * @return Page of stores
+     * @throws StoreException if the cursor or the limit is invalid
+     */
+    public Page<Store> getStores(String cursor, int limit, String token) throws StoreException {
+        checkToken(token, "List Stores");
+        try {
+            return registry.getStorePage(cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new StoreException("List Stores", e.getMessage());
+        }
     }
 
     /**
      * Update store information
      */
-    public Store updateStore(String storeId, String description, String address) throws StoreException {
-        Store store = storeMap.get(storeId);
-        if (store == null) {
-            throw new StoreException("Update Store", "Store Does Not Exist");
+    public Store updateStore(String storeId, String description, String address, String token)
+            throws StoreException {
+        checkToken(token, "Update Store");
+        //Apply the mutation on the lane of the Store
+        return write(storeId, () -> {
+            Store store = registry.getStore(storeId);
+            if (store == null) {
+                throw new StoreException("Update Store", "Store Does Not Exist");
+            }
+
+            if (description != null) {
+                store.setDescription(description);
+            }
+            if (address != null) {
+                store.setAddress(address);
+            }
+
+            // Also update in repository if available
+            if (storeRepository != null) {
+                storeRepository.save(store);
+            }
+
+            journal(JournalOperation.UPDATE_STORE, storeId, description, address);
+            return store;
+        });
+    }
+
+    /**
+     * Delete a store
+     */
+    public void deleteStore(String storeId, String token) throws StoreException {
+        checkToken(token, "Delete Store");
+        //Apply the mutation on the lane of the Store
+        write(storeId, () -> {
+            Store store = registry.removeStore(storeId);
+            if (store == null) {
+                throw new StoreException("Delete Store", "Store Does Not Exist");
+            }
+
+            // Also delete from repository if available
+            if (storeRepository != null) {
+                storeRepository.delete(storeId);
+            }
+
+            journal(JournalOperation.DELETE_STORE, storeId);
+            return null;
+        });
+    }
+
+    /**
+     * Run Store mutation on the lane of the Store when single writer lanes are enabled,
+     * otherwise run it on the calling thread
+     */
+    private <T> T write(String storeId, StoreWriteLanes.StoreAction<T> action) throws StoreException {
+        if (journal == null) {
+            return execute(storeId, action);
+        }
+        if (mutating.get() != null) {
+            return execute(storeId, () -> mutate(action));
         }
 
-        if (description != null) {
-            store.setDescription(description);
+        //Outermost mutation commits the journal once all the nested mutations are applied
+        snapshotBarrier.readLock().lock();
+        try {
+            T result = execute(storeId, () -> mutate(action));
+            commit();
+            return result;
+        } finally {
+            snapshotBarrier.readLock().unlock();
         }
-        if (address != null) {
-            store.setAddress(address);
+    }
+
+    /**
+     * Run mutations of possibly different Stores on the calling thread deferring the journal
+     * commit until all of them are applied. Each mutation still runs on the lane of its Store
+     */
+    private <T> T batch(StoreWriteLanes.StoreAction<T> action) throws StoreException {
+        if (journal == null || mutating.get() != null) {
+            return action.execute();
         }
 
-        // Also update in repository if available
-        if (storeRepository != null) {
-            storeRepository.save(store);
+        snapshotBarrier.readLock().lock();
+        try {
+            T result = mutate(action);
+            commit();
+            return result;
+        } finally {
+            snapshotBarrier.readLock().unlock();
         }
+    }
 
-        return store;
+    /**
+     * Run mutation flagging the current thread, also a lane thread, as mutating. Flagged threads neither
+     * commit the journal nor enter the snapshot barrier, that is left to the outermost mutation
+     */
+    private static <T> T mutate(StoreWriteLanes.StoreAction<T> action) throws StoreException {
+        if (mutating.get() != null) {
+            return action.execute();
+        }
+        mutating.set(Boolean.TRUE);
+        try {
+            return action.execute();
+        } finally {
+            mutating.remove();
+        }
+    }
+
+    private <T> T execute(String storeId, StoreWriteLanes.StoreAction<T> action) throws StoreException {
+        if (writeLanes == null || storeId == null) {
+            return action.execute();
+        }
+        return writeLanes.execute(storeId, action);
     }
 
     /**
-     * Delete a store
+     * Replay the journal rebuilding all the entities it describes. Mutations applied during
+     * the replay are not journaled again
+     * @return number of replayed journal records
+     * @throws StoreException if the journal can not be read
+     */
+    public long recoverJournal() throws StoreException {
+        return recoverJournal(0);
+    }
+
+    /**
+     * Write binary snapshot of all the entities. The snapshot records how much of the journal it covers
+     * so the journal only needs to be replayed from that point on. Journaled mutations wait until the
+     * snapshot is written
+     * @param path
+     * @throws StoreException if the snapshot can not be written
+     */
+    public void saveSnapshot(Path path) throws StoreException {
+        //Mutations wait while the snapshot is written, so the image holds exactly the journal up to the position
+        snapshotBarrier.writeLock().lock();
+        try {
+            StoreSnapshot.write(registry, path, journal == null ? 0 : journal.position());
+        } catch (IOException e) {
+            throw new StoreException("Save Snapshot", "Snapshot Can Not Be Written");
+        } finally {
+            snapshotBarrier.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace all the entities with the ones from the binary snapshot
+     * @param path
+     * @return journal position the snapshot covers
+     * @throws StoreException if the snapshot can not be read or is corrupted
+     */
+    public long loadSnapshot(Path path) throws StoreException {
+        try {
+            return StoreSnapshot.read(registry, path);
+        } catch (IOException e) {
+            throw new StoreException("Load Snapshot", "Snapshot Can Not Be Read");
+        }
+    }
+
+    /**
+     * Replay the part of the journal that follows the given position. Records are applied strictly in
+     * the order they were journaled, a record that can not be applied means the journal is corrupted
+     * and fails the recovery
+     * @param from journal position returned by loadSnapshot
+     * @return number of replayed journal records
+     * @throws StoreException if the journal can not be read or one of its records can not be applied
      */
-    public void deleteStore(String storeId) throws StoreException {
-        Store store = storeMap.remove(storeId);
-        if (store == null) {
-            throw new StoreException("Delete Store", "Store Does Not Exist");
+    public long recoverJournal(long from) throws StoreException {
+        if (journal == null) {
+            return 0;
+        }
+
+        replaying = true;
+        try {
+            return journal.replay(this::replay, from);
+        } catch (ReplayFailure e) {
+            throw e.failure;
+        } catch (IOException e) {
+            throw new StoreException("Recover Journal", "Journal Can Not Be Read");
+        } finally {
+            replaying = false;
         }
+    }
 
-        // Also delete from repository if available
-        if (storeRepository != null) {
-            storeRepository.delete(storeId);
+    /**
+     * Failure of a journal record carried out of the journal replay
+     */
+    private static final class ReplayFailure extends RuntimeException {
+        private final StoreException failure;
+
+        private ReplayFailure(StoreException failure) {
+            super(failure.getReason(), null, false, false);
+            this.failure = failure;
         }
     }
+
+    /**
+     * Decode the operation code of a journal record and apply the record
+     * @throws ReplayFailure if the record can not be applied
+     */
+    private void replay(byte operation, String[] args) {
+        JournalOperation[] operations = JournalOperation.values();
+        if (operation < 0 || operation >= operations.length) {
+            logger.error("Journal operation {} {} is unknown", operation, Arrays.toString(args));
+            throw new ReplayFailure(new StoreException("Recover Journal", "Journal Operation Is Unknown"));
+        }
+        try {
+            apply(operations[operation], args);
+        } catch (StoreException e) {
+            logger.error("Journal record {} {} can not be applied: {}", operations[operation],
+                    Arrays.toString(args), e.getReason());
+            if (!"Recover Journal".equals(e.getAction())) {
+                e = new StoreException("Recover Journal", "Journal Record Can Not Be Applied");
+            }
+            throw new ReplayFailure(e);
+        }
+    }
+
+    /**
+     * Apply the mutation described by a journal record
+     * @throws StoreException if the mutation fails or the record is malformed
+     */
+    private void apply(JournalOperation operation, String[] args) throws StoreException {
+        try {
+            switch (operation) {
+                case PROVISION_STORE -> provisionStore(args[0], args[1], args[2], null);
+                case PROVISION_AISLE -> provisionAisle(args[0], args[1], args[2], args[3],
+                        AisleLocation.valueOf(args[4]), null);
+                case PROVISION_SHELF -> provisionShelf(args[0], args[1], args[2], args[3],
+                        ShelfLevel.valueOf(args[4]), args[5], Temperature.valueOf(args[6]), null);
+                case PROVISION_INVENTORY -> provisionInventory(args[0], args[1], args[2], args[3],
+                        Integer.parseInt(args[4]), Integer.parseInt(args[5]), args[6],
+                        InventoryType.valueOf(args[7]), null);
+                case UPDATE_INVENTORY -> updateInventory(args[0], Integer.parseInt(args[1]), null);
+                case PROVISION_PRODUCT -> provisionProduct(args[0], args[1], args[2], args[3], args[4],
+                        Double.parseDouble(args[5]), Temperature.valueOf(args[6]), null);
+                case PROVISION_CUSTOMER -> provisionCustomer(args[0], args[1], args[2],
+                        CustomerType.valueOf(args[3]), args[4], args[5], null);
+                case UPDATE_CUSTOMER -> updateCustomer(args[0], args[1], args[2], null);
+                case PROVISION_BASKET -> provisionBasket(args[0], null);
+                case ASSIGN_BASKET -> assignCustomerBasket(args[0], args[1], null);
+                case ADD_BASKET_PRODUCT -> addBasketProduct(args[0], args[1], Integer.parseInt(args[2]), null);
+                case REMOVE_BASKET_PRODUCT -> removeBasketProduct(args[0], args[1], Integer.parseInt(args[2]), null);
+                case CLEAR_BASKET -> clearBasket(args[0], null);
+                case PROVISION_DEVICE -> provisionDevice(args[0], args[1], args[2], args[3], args[4], null);
+                case UPDATE_STORE -> updateStore(args[0], args[1], args[2], null);
+                case DELETE_STORE -> deleteStore(args[0], null);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new StoreException("Recover Journal", "Journal Record Is Malformed");
+        }
+    }
+
+    /**
+     * Validate the token when token validation is enabled. Replayed journal records were
+     * validated when they were applied the first time
+     */
+    private void checkToken(String token, String action) throws StoreException {
+        if (authenticationService != null && !replaying && authenticationService.validateToken(token) == null) {
+            throw new StoreException(action, "Invalid Token");
+        }
+    }
+
+    /**
+     * Append successful mutation to the journal
+     */
+    private void journal(JournalOperation operation, String... args) {
+        if (journal != null && !replaying) {
+            journal.append((byte) operation.ordinal(), args);
+        }
+    }
+
+    /**
+     * Wait until the journaled mutations are durable
+     */
+    private void commit() throws StoreException {
+        if (journal != null && !replaying) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                throw new StoreException("Commit Journal", "Journal Write Failed");
+            }
+        }
+    }
+
+    /**
+     * Helper method letting through failures caused by the entry itself, i.e. the entity already exists or the
+     * entry is invalid. Any other failure, e.g. of the journal or of the lane, is rethrown so that the request
+     * does not go on against state that was not persisted
+     */
+    private static void requireEntryError(StoreException e) throws StoreException {
+        String action = e.getAction() == null ? "" : e.getAction();
+        String reason = e.getReason() == null ? "" : e.getReason();
+        boolean entryError = reason.contains("Already Exists") || reason.endsWith("Does Not Exist")
+                || ((action.startsWith("Provision ") || action.startsWith("Add ")) && !reason.equals("Invalid Token"));
+        if (!entryError) {
+            throw e;
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    /**
+     * Helper method rejecting missing and oversized batches
+     */
+    private static void checkBatchSize(String action, List<BatchOperation> operations) throws StoreException {
+        if (operations == null || operations.isEmpty()) {
+            throw new StoreException(action, "Batch Is Empty");
+        }
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new StoreException(action, "Batch Is Too Large");
+        }
+    }
+
+    /**
+     * Helper method making sure that all the ids of a batch entry are provided
+     */
+    private static void requireIds(String action, String... ids) throws StoreException {
+        for (String id : ids) {
+            if (id == null) {
+                throw new StoreException(action, "Required Id Is Missing");
+            }
+        }
+    }
+
+    /**
+     * Helper method resolving the Sensor of the given id
+     */
+    private static Sensor getSensor(String deviceId, String action) throws StoreException {
+        Device device = registry.getDevice(deviceId);
+        if (device == null) {
+            throw new StoreException(action, "Device Does Not Exist");
+        }
+        if (!(device instanceof Sensor sensor)) {
+            throw new StoreException(action, "Device Is Not A Sensor");
+        }
+        return sensor;
+    }
+
+    /**
+     * Helper method resolving the Store the Basket belongs to
+     */
+    private static String getStoreId(Basket basket) {
+        return basket.getStore() == null ? null : basket.getStore().getId();
+    }
 }
@@ -0,0 +1,388 @@
+package com.se300.store.service;
+
+import com.se300.store.model.*;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary point in time snapshot of all the entities of the EntityRegistry including the relationships
+ * that JSON serialization skips (Store layout, Customer locations and Basket assignments).
+ * Snapshots are written to a temporary file that replaces the previous snapshot atomically and are
+ * loaded back through a memory mapped buffer. The snapshot is consistent when no mutations are
+ * applied while it is written.
+ *
+ * Layout: [magic:int][version:int][journal position:long][products][stores][customers][baskets][crc32c:int]
+ * where every section starts with the number of its entries. Strings are length prefixed UTF-8 (-1 for
+ * null) and enums are stored by ordinal (-1 for null), so reordering enum constants requires a new version
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+class StoreSnapshot {
+
+    private static final int MAGIC = 0x53534E50;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte SENSOR = 0;
+    private static final byte APPLIANCE = 1;
+
+    private StoreSnapshot() {
+    }
+
+    /**
+     * Write all the entities of the registry to the snapshot file
+     * @param registry
+     * @param path
+     * @param journalPosition position of the command journal the snapshot covers
+     * @throws IOException if snapshot can not be written
+     */
+    static void write(EntityRegistry registry, Path path, long journalPosition) throws IOException {
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (CheckedOutputStream checked = new CheckedOutputStream(Files.newOutputStream(temporary), crc);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, BUFFER_SIZE))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalPosition);
+
+            List<Product> products = new ArrayList<>(registry.getProducts());
+            out.writeInt(products.size());
+            for (Product product : products) {
+                writeProduct(out, product);
+            }
+
+            List<Store> stores = new ArrayList<>(registry.getStores());
+            out.writeInt(stores.size());
+            for (Store store : stores) {
+                writeStore(out, store);
+            }
+
+            List<Customer> customers = new ArrayList<>(registry.getCustomers());
+            out.writeInt(customers.size());
+            for (Customer customer : customers) {
+                writeCustomer(out, customer, registry.getCustomerStoreId(customer.getId()));
+            }
+
+            List<Basket> baskets = new ArrayList<>(registry.getBaskets());
+            out.writeInt(baskets.size());
+            for (Basket basket : baskets) {
+                writeBasket(out, basket);
+            }
+
+            //Checksum covers everything written before it
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replace all the entities of the registry with the ones from the snapshot file
+     * @param registry
+     * @param path
+     * @return position of the command journal the snapshot covers
+     * @throws IOException if snapshot can not be read
+     * @throws StoreException if snapshot is corrupted
+     */
+    static long read(EntityRegistry registry, Path path) throws IOException, StoreException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 20 || size > Integer.MAX_VALUE) {
+                throw new StoreException("Load Snapshot", "Snapshot Is Corrupted");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, (int) size - 4));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getInt((int) size - 4) != (int) crc.getValue()) {
+                throw new StoreException("Load Snapshot", "Snapshot Is Corrupted");
+            }
+
+            try {
+                return new Reader(buffer).read(registry);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new StoreException("Load Snapshot", "Snapshot Is Corrupted");
+            }
+        }
+    }
+
+    private static void writeProduct(DataOutputStream out, Product product) throws IOException {
+        writeString(out, product.getId());
+        writeString(out, product.getName());
+        writeString(out, product.getDescription());
+        writeString(out, product.getSize());
+        writeString(out, product.getCategory());
+        out.writeBoolean(product.getPrice() != null);
+        out.writeDouble(product.getPrice() == null ? 0 : product.getPrice());
+        writeEnum(out, product.getTemperature());
+    }
+
+    private static void writeStore(DataOutputStream out, Store store) throws IOException {
+        writeString(out, store.getId());
+        writeString(out, store.getAddress());
+        writeString(out, store.getDescription());
+
+        List<Aisle> aisles = new ArrayList<>(store.getAisles());
+        out.writeInt(aisles.size());
+        for (Aisle aisle : aisles) {
+            writeString(out, aisle.getNumber());
+            writeString(out, aisle.getName());
+            writeString(out, aisle.getDescription());
+            writeEnum(out, aisle.getAisleLocation());
+
+            List<Shelf> shelves = new ArrayList<>(aisle.getShelfMap().values());
+            out.writeInt(shelves.size());
+            for (Shelf shelf : shelves) {
+                writeString(out, shelf.getId());
+                writeString(out, shelf.getName());
+                writeEnum(out, shelf.getLevel());
+                writeString(out, shelf.getDescription());
+                writeEnum(out, shelf.getTemperature());
+
+                List<Inventory> inventoryList = new ArrayList<>(shelf.getInventoryMap().values());
+                out.writeInt(inventoryList.size());
+                for (Inventory inventory : inventoryList) {
+                    writeString(out, inventory.getId());
+                    out.writeInt(inventory.getCapacity());
+                    out.writeInt(inventory.getCount());
+                    writeString(out, inventory.getProductId());
+                    writeEnum(out, inventory.getType());
+                }
+            }
+        }
+
+        List<Device> devices = new ArrayList<>(store.getDevices());
+        out.writeInt(devices.size());
+        for (Device device : devices) {
+            out.writeByte(device instanceof Appliance ? APPLIANCE : SENSOR);
+            writeString(out, device.getId());
+            writeString(out, device.getName());
+            writeString(out, device.getType());
+            writeString(out, device.getStoreLocation() == null ? null : device.getStoreLocation().getAisleId());
+        }
+    }
+
+    private static void writeCustomer(DataOutputStream out, Customer customer, String storeId) throws IOException {
+        writeString(out, customer.getId());
+        writeString(out, customer.getFirstName());
+        writeString(out, customer.getLastName());
+        writeEnum(out, customer.getType());
+        writeString(out, customer.getEmail());
+        writeString(out, customer.getAccountAddress());
+        writeEnum(out, customer.getAgeGroup());
+
+        StoreLocation location = customer.getStoreLocation();
+        out.writeBoolean(location != null);
+        if (location != null) {
+            writeString(out, location.getStoreId());
+            writeString(out, location.getAisleId());
+        }
+        out.writeLong(customer.getLastSeen() == null ? Long.MIN_VALUE : customer.getLastSeen().getTime());
+        writeString(out, storeId);
+    }
+
+    private static void writeBasket(DataOutputStream out, Basket basket) throws IOException {
+        writeString(out, basket.getId());
+        writeString(out, basket.getStore() == null ? null : basket.getStore().getId());
+        writeString(out, basket.getCustomer() == null ? null : basket.getCustomer().getId());
+
+        Map<String, Integer> products = basket.getProductMap();
+        out.writeInt(products.size());
+        for (Map.Entry<String, Integer> entry : products.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    /**
+     * Reader rebuilding the entities from the mapped snapshot
+     */
+    private static final class Reader {
+
+        private final MappedByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        private Reader(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private long read(EntityRegistry registry) throws StoreException {
+
+            long journalPosition = buffer.getLong();
+            registry.clear();
+
+            int productCount = buffer.getInt();
+            for (int i = 0; i < productCount; i++) {
+                Product product = new Product(readString(), readString(), readString(), readString(),
+                        readString(), readPrice(), readEnum(Temperature.values()));
+                registry.putProductIfAbsent(product);
+            }
+
+            int storeCount = buffer.getInt();
+            for (int i = 0; i < storeCount; i++) {
+                readStore(registry);
+            }
+
+            int customerCount = buffer.getInt();
+            for (int i = 0; i < customerCount; i++) {
+                readCustomer(registry);
+            }
+
+            int basketCount = buffer.getInt();
+            for (int i = 0; i < basketCount; i++) {
+                readBasket(registry);
+            }
+
+            return journalPosition;
+        }
+
+        private void readStore(EntityRegistry registry) throws StoreException {
+
+            String storeId = readString();
+            Store store = new Store(storeId, readString(), readString());
+            registry.putStoreIfAbsent(store);
+
+            int aisleCount = buffer.getInt();
+            for (int i = 0; i < aisleCount; i++) {
+                String aisleNumber = readString();
+                Aisle aisle = store.addAisle(aisleNumber, readString(), readString(),
+                        readEnum(AisleLocation.values()));
+
+                int shelfCount = buffer.getInt();
+                for (int j = 0; j < shelfCount; j++) {
+                    String shelfId = readString();
+                    Shelf shelf = aisle.addShelf(shelfId, readString(), readEnum(ShelfLevel.values()),
+                            readString(), readEnum(Temperature.values()));
+
+                    int inventoryCount = buffer.getInt();
+                    for (int k = 0; k < inventoryCount; k++) {
+                        String inventoryId = readString();
+                        int capacity = buffer.getInt();
+                        int count = buffer.getInt();
+                        Inventory inventory = shelf.addInventory(inventoryId, storeId, aisleNumber, shelfId,
+                                capacity, count, readString(), readEnum(InventoryType.values()));
+                        registry.registerInventory(storeId, inventory);
+                        store.addInventory(inventory);
+                    }
+                }
+            }
+
+            int deviceCount = buffer.getInt();
+            for (int i = 0; i < deviceCount; i++) {
+                byte kind = buffer.get();
+                String deviceId = readString();
+                String name = readString();
+                String type = readString();
+                StoreLocation location = new StoreLocation(storeId, readString());
+                Device device = kind == APPLIANCE
+                        ? new Appliance(deviceId, name, location, type)
+                        : new Sensor(deviceId, name, location, type);
+                registry.registerDevice(storeId, device);
+                store.addDevice(device);
+            }
+        }
+
+        private void readCustomer(EntityRegistry registry) throws StoreException {
+
+            Customer customer = new Customer(readString(), readString(), readString(),
+                    readEnum(CustomerType.values()), readString(), readString());
+            customer.setAgeGroup(readEnum(CustomerAgeGroup.values()));
+            if (buffer.get() != 0) {
+                customer.setStoreLocation(new StoreLocation(readString(), readString()));
+            }
+            long lastSeen = buffer.getLong();
+            customer.setLastSeen(lastSeen == Long.MIN_VALUE ? null : new Date(lastSeen));
+            registry.putCustomerIfAbsent(customer);
+
+            //Put the Customer back into the Store he/she was in
+            String storeId = readString();
+            Store store = storeId == null ? null : registry.getStore(storeId);
+            if (store != null) {
+                store.addCustomer(customer);
+                registry.setCustomerStoreId(customer.getId(), storeId);
+            }
+        }
+
+        private void readBasket(EntityRegistry registry) throws StoreException {
+
+            Basket basket = new Basket(readString());
+            String storeId = readString();
+            String customerId = readString();
+
+            int productCount = buffer.getInt();
+            for (int i = 0; i < productCount; i++) {
+                basket.restoreProduct(readString(), buffer.getInt());
+            }
+            registry.putBasketIfAbsent(basket);
+
+            //Restore Store and Customer associations of the Basket
+            Store store = storeId == null ? null : registry.getStore(storeId);
+            if (store != null) {
+                basket.setStore(store);
+                store.addBasket(basket);
+            }
+            Customer customer = customerId == null ? null : registry.getCustomer(customerId);
+            if (customer != null) {
+                basket.setCustomer(customer);
+                customer.assignBasket(basket);
+            }
+        }
+
+        private String readString() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private Double readPrice() {
+            boolean present = buffer.get() != 0;
+            double price = buffer.getDouble();
+            return present ? price : null;
+        }
+
+        private <E extends Enum<E>> E readEnum(E[] values) {
+            int ordinal = buffer.get();
+            return ordinal < 0 ? null : values[ordinal];
+        }
+    }
+}
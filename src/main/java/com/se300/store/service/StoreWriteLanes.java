@@ -0,0 +1,169 @@
+package com.se300.store.service;
+
+import com.se300.store.model.StoreException;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single writer execution lanes for Store mutations. Every Store is assigned to a lane (a queue drained
+ * by at most one thread at a time) by the hash of its id, so mutations of the same Store are applied one
+ * after another while mutations of Stores on different lanes run in parallel on a shared worker pool.
+ * The lanes are allocated once, so Stores coming and going do not leave lanes behind
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ * @since   2026-10-18
+ */
+public class StoreWriteLanes {
+
+    // Maximum number of tasks a lane runs before giving the worker thread to other lanes
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    // Number of lanes per worker thread, keeps Stores sharing a lane rare
+    private static final int LANES_PER_THREAD = 16;
+
+    // Lane that is being drained by the current thread, used to run nested mutations inline
+    private static final ThreadLocal<Lane> currentLane = new ThreadLocal<>();
+
+    private final ExecutorService executor;
+    private final Lane[] lanes;
+
+    /**
+     * Action executed on the lane of a Store
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface StoreAction<T> {
+        T execute() throws StoreException;
+    }
+
+    /**
+     * Constructor for the StoreWriteLanes class using one worker thread per available processor
+     */
+    public StoreWriteLanes() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the StoreWriteLanes class
+     * @param threads number of worker threads shared by all the lanes
+     */
+    public StoreWriteLanes(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "store-lane-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lanes = new Lane[threads * LANES_PER_THREAD];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+        }
+    }
+
+    /**
+     * Execute action on the lane of the given Store and wait for its result. If the current thread
+     * is already draining the lane of that Store the action runs inline.
+     * Actions must not wait on the lane of another Store
+     * @param storeId
+     * @param action
+     * @return result of the action
+     * @throws StoreException thrown by the action
+     */
+    public <T> T execute(String storeId, StoreAction<T> action) throws StoreException {
+
+        Lane lane = lanes[(storeId.hashCode() & Integer.MAX_VALUE) % lanes.length];
+        if (currentLane.get() == lane) {
+            return action.execute();
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        lane.submit(() -> {
+            try {
+                future.complete(action.execute());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StoreException("Execute Store Action", "Interrupted While Waiting For Store " + storeId);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StoreException storeException) {
+                throw storeException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Stop the worker threads once all the submitted actions are executed
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queue of actions for the Stores assigned to the lane. The scheduled flag guarantees that only one worker
+     * thread drains the queue at any given time
+     */
+    private final class Lane implements Runnable {
+
+        private final int index;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(int index) {
+            this.index = index;
+        }
+
+        private void submit(Runnable task) {
+            queue.add(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            currentLane.set(this);
+            try {
+                Runnable task;
+                for (int i = 0; i < DRAIN_BATCH_SIZE && (task = queue.poll()) != null; i++) {
+                    task.run();
+                }
+            } finally {
+                currentLane.remove();
+                scheduled.set(false);
+            }
+
+            //Tasks might have been added after the last poll, reschedule to drain them
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Lane{" +
+                    "index=" + index +
+                    ", pending=" + queue.size() +
+                    '}';
+        }
+    }
+}
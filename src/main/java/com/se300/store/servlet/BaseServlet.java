@@ -1,12 +1,22 @@
 package com.se300.store.servlet;
 
+import com.google.gson.JsonParseException;
+import com.se300.store.data.Page;
+import com.se300.store.model.StoreException;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Base servlet providing common functionality for all API servlets.
@@ -16,24 +26,323 @@ import java.io.PrintWriter;
  */
 public abstract class BaseServlet extends HttpServlet {
 
+    // Query parameter requesting human-readable JSON, e.g. ?pretty or ?pretty=true
+    private static final String PRETTY_PARAMETER = "pretty";
+    // Query parameters of paginated listings
+    protected static final String LIMIT_PARAMETER = "limit";
+    protected static final String CURSOR_PARAMETER = "cursor";
+    private static final String BEARER_PREFIX = "Bearer ";
+    // Servlet init parameter overriding the maximum request body size in bytes
+    private static final String MAX_BODY_SIZE_PARAMETER = "maxBodySize";
+    // Application wide default of the maximum request body size in bytes
+    private static final String MAX_BODY_SIZE_PROPERTY = "smartstore.http.maxBodySize";
+    private static final long DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+    // Servlet init parameter overriding the compression threshold in bytes
+    private static final String COMPRESSION_THRESHOLD_PARAMETER = "compressionThreshold";
+    // Application wide default of the compression threshold in bytes, negative disables compression
+    private static final String COMPRESSION_THRESHOLD_PROPERTY = "smartstore.http.compressionThreshold";
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 2048;
+
+    // Routes of the servlet, registered once when the servlet is created
+    private final PathRouter<RouteHandler> router = new PathRouter<>();
+    private boolean routed;
+
+    private long maxBodySize = Long.getLong(MAX_BODY_SIZE_PROPERTY, DEFAULT_MAX_BODY_SIZE);
+    private int compressionThreshold = Integer.getInteger(COMPRESSION_THRESHOLD_PROPERTY,
+            DEFAULT_COMPRESSION_THRESHOLD);
+
     /**
-     * Read the request body as a string.
-     * Used for parsing JSON payloads from POST/PUT requests.
+     * Pick up the maximum request body size from the servlet configuration.
+     */
+    @Override
+    public void init() throws ServletException {
+        String value = getInitParameter(MAX_BODY_SIZE_PARAMETER);
+        if (value != null) {
+            try {
+                setMaxBodySize(Long.parseLong(value.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new ServletException("Invalid " + MAX_BODY_SIZE_PARAMETER + " " + value, e);
+            }
+        }
+        value = getInitParameter(COMPRESSION_THRESHOLD_PARAMETER);
+        if (value != null) {
+            try {
+                setCompressionThreshold(Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                throw new ServletException("Invalid " + COMPRESSION_THRESHOLD_PARAMETER + " " + value, e);
+            }
+        }
+    }
+
+    /**
+     * Compress the response when the client accepts it and reject request bodies
+     * that are too large or are not valid JSON before they reach the handler methods.
+     */
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        CompressingResponseWrapper compressing = null;
+        if (compressionThreshold >= 0 && !"HEAD".equals(request.getMethod())) {
+            response.addHeader("Vary", "Accept-Encoding");
+            String encoding = CompressingResponseWrapper.negotiate(request.getHeader("Accept-Encoding"));
+            if (encoding != null) {
+                compressing = new CompressingResponseWrapper(response, encoding, compressionThreshold);
+                response = compressing;
+            }
+        }
+
+        try {
+            handle(request, response);
+        } finally {
+            if (compressing != null) {
+                compressing.finish();
+            }
+        }
+    }
+
+    private void handle(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        try {
+            if (routed) {
+                dispatch(request, response);
+            } else {
+                super.service(request, response);
+            }
+        } catch (BodyTooLargeException | JsonParseException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.resetBuffer();
+            if (e instanceof BodyTooLargeException) {
+                sendErrorResponse(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+            } else {
+                sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid JSON Body");
+            }
+        }
+    }
+
+    /**
+     * Handler of a route registered with {@link #route(String, String, RouteHandler)}.
+     */
+    @FunctionalInterface
+    protected interface RouteHandler {
+        void handle(HttpServletRequest request, HttpServletResponse response, PathRouter.Match<?> path)
+                throws IOException, StoreException;
+    }
+
+    /**
+     * Register the handler of a route. Once a servlet has routes, requests are dispatched
+     * through them instead of the doGet/doPost/... methods.
+     *
+     * @param method HTTP method, e.g. GET
+     * @param template full path template, e.g. /api/v1/stores/{storeId}
+     * @param handler handler of the route
+     */
+    protected void route(String method, String template, RouteHandler handler) {
+        router.add(method, template, handler);
+        routed = true;
+    }
+
+    /**
+     * Dispatch the request to the handler of the matching route.
+     */
+    private void dispatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        PathRouter.Match<RouteHandler> match = router.match(request.getMethod(), getRoutePath(request));
+        if (match == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_NOT_FOUND, "Resource Does Not Exist");
+            return;
+        }
+        if (match.isMethodNotAllowed()) {
+            response.setHeader("Allow", match.getAllowedMethods());
+            sendErrorResponse(response, HttpServletResponse.SC_METHOD_NOT_ALLOWED, "Method Not Allowed");
+            return;
+        }
+
+        try {
+            match.getHandler().handle(request, response, match);
+        } catch (StoreException e) {
+            sendStoreError(response, e);
+        }
+    }
+
+    /**
+     * Get the decoded path of the request below the context path.
+     */
+    private static String getRoutePath(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null) {
+            return servletPath;
+        }
+        return servletPath.isEmpty() ? pathInfo : servletPath + pathInfo;
+    }
+
+    /**
+     * Get a required query parameter.
+     *
+     * @throws StoreException If the parameter is missing or empty
+     */
+    protected String requireParameter(HttpServletRequest request, String name) throws StoreException {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            throw new StoreException("Request", "Missing Parameter " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Get a required integer query parameter.
+     *
+     * @throws StoreException If the parameter is missing or not a number
+     */
+    protected int intParameter(HttpServletRequest request, String name) throws StoreException {
+        String value = requireParameter(request, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new StoreException("Request", "Invalid Parameter " + name);
+        }
+    }
+
+    /**
+     * Get an optional long query parameter.
+     *
+     * @throws StoreException If the parameter is not a number
+     */
+    protected long longParameter(HttpServletRequest request, String name, long defaultValue) throws StoreException {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new StoreException("Request", "Invalid Parameter " + name);
+        }
+    }
+
+    /**
+     * Get a required decimal query parameter.
+     *
+     * @throws StoreException If the parameter is missing or not a number
+     */
+    protected double doubleParameter(HttpServletRequest request, String name) throws StoreException {
+        String value = requireParameter(request, name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new StoreException("Request", "Invalid Parameter " + name);
+        }
+    }
+
+    /**
+     * Get a required enum query parameter.
+     *
+     * @throws StoreException If the parameter is missing or not one of the enum constants
+     */
+    protected <E extends Enum<E>> E enumParameter(HttpServletRequest request, String name, Class<E> type)
+            throws StoreException {
+        String value = requireParameter(request, name);
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new StoreException("Request", "Invalid " + type.getSimpleName() + " " + value);
+        }
+    }
+
+    /**
+     * Get the size in bytes above which responses are compressed.
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Set the size in bytes above which responses are compressed, negative disables compression.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Get the maximum accepted request body size in bytes.
+     */
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Set the maximum accepted request body size in bytes.
+     */
+    public void setMaxBodySize(long maxBodySize) {
+        if (maxBodySize <= 0) {
+            throw new IllegalArgumentException("Maximum body size must be positive");
+        }
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Read the request body as a string, line breaks included.
+     * The body is limited to the maximum body size.
      *
      * @param request The HTTP request
      * @return The request body as a string
-     * @throws IOException If reading fails
+     * @throws IOException If reading fails or the body is too large
      */
     protected String readRequestBody(HttpServletRequest request) throws IOException {
         StringBuilder buffer = new StringBuilder();
-        BufferedReader reader = request.getReader();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            buffer.append(line);
+        Reader reader = openBodyReader(request);
+        char[] chunk = new char[4096];
+        int count;
+        while ((count = reader.read(chunk)) != -1) {
+            buffer.append(chunk, 0, count);
         }
         return buffer.toString();
     }
 
+    /**
+     * Deserialize the JSON request body straight from the input stream.
+     * Used for parsing JSON payloads from POST/PUT requests.
+     *
+     * @param request The HTTP request
+     * @param type The type to deserialize to
+     * @param <T> The type parameter
+     * @return Deserialized body, or null if the body is empty
+     * @throws IOException If reading fails or the body is too large
+     */
+    protected <T> T readJsonBody(HttpServletRequest request, Class<T> type) throws IOException {
+        return readJsonBody(request, (Type) type);
+    }
+
+    /**
+     * Deserialize the JSON request body of a generic type straight from the input stream.
+     *
+     * @param request The HTTP request
+     * @param type The type to deserialize to, e.g. a TypeToken type for collections
+     * @param <T> The type parameter
+     * @return Deserialized body, or null if the body is empty
+     * @throws IOException If reading fails or the body is too large
+     */
+    protected <T> T readJsonBody(HttpServletRequest request, Type type) throws IOException {
+        return JsonHelper.fromJson(openBodyReader(request), type);
+    }
+
+    /**
+     * Open a reader over the request body that fails once more than the maximum
+     * body size has been read. A declared Content-Length above the limit is
+     * rejected before anything is read.
+     */
+    private Reader openBodyReader(HttpServletRequest request) throws IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBodySize) {
+            throw new BodyTooLargeException(maxBodySize);
+        }
+
+        String encoding = request.getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new InputStreamReader(new LimitedInputStream(request.getInputStream(), maxBodySize), charset);
+    }
+
     /**
      * Send a JSON response with HTTP 200 OK status.
      *
@@ -54,12 +363,48 @@ public abstract class BaseServlet extends HttpServlet {
      * @throws IOException If writing fails
      */
     protected void sendJsonResponse(HttpServletResponse response, Object object, int statusCode) throws IOException {
+        writeJson(response, object, statusCode, false);
+    }
+
+    /**
+     * Send a JSON response with a specified HTTP status code, pretty printed
+     * when the request asks for it with the pretty query parameter.
+     *
+     * @param request The HTTP request
+     * @param response The HTTP response
+     * @param object The object to serialize to JSON
+     * @param statusCode The HTTP status code (200, 201, 400, etc.)
+     * @throws IOException If writing fails
+     */
+    protected void sendJsonResponse(HttpServletRequest request, HttpServletResponse response, Object object,
+                                    int statusCode) throws IOException {
+        writeJson(response, object, statusCode, isPrettyPrint(request));
+    }
+
+    /**
+     * Check if the request asks for human-readable JSON.
+     *
+     * @param request The HTTP request
+     * @return true if the pretty query parameter is present and not false
+     */
+    protected boolean isPrettyPrint(HttpServletRequest request) {
+        String pretty = request.getParameter(PRETTY_PARAMETER);
+        return pretty != null && !pretty.equalsIgnoreCase("false");
+    }
+
+    /**
+     * Stream the object as JSON straight to the response writer. The writer of the
+     * container is recycled between requests, so no per response buffer or String
+     * holding the whole document is allocated.
+     */
+    private void writeJson(HttpServletResponse response, Object object, int statusCode, boolean pretty)
+            throws IOException {
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         response.setStatus(statusCode);
 
         PrintWriter out = response.getWriter();
-        out.print(JsonHelper.toJson(object));
+        JsonHelper.toJson(object, out, pretty);
         out.flush();
     }
 
@@ -79,10 +424,69 @@ public abstract class BaseServlet extends HttpServlet {
         // Create a simple error object
         ErrorResponse error = new ErrorResponse(statusCode, message);
         PrintWriter out = response.getWriter();
-        out.print(JsonHelper.toJson(error));
+        JsonHelper.toJson(error, out, false);
         out.flush();
     }
 
+    /**
+     * Send the error of a failed service call, mapping its reason to the HTTP status.
+     *
+     * @param response The HTTP response
+     * @param e The exception thrown by the service
+     * @throws IOException If writing fails
+     */
+    protected void sendStoreError(HttpServletResponse response, StoreException e) throws IOException {
+        String reason = e.getReason();
+        int statusCode;
+        if (reason == null) {
+            statusCode = HttpServletResponse.SC_BAD_REQUEST;
+        } else if (reason.endsWith("Does Not Exist")) {
+            statusCode = HttpServletResponse.SC_NOT_FOUND;
+        } else if (reason.endsWith("Already Exists") || reason.endsWith("Is Being Moved")) {
+            statusCode = HttpServletResponse.SC_CONFLICT;
+        } else if (reason.equals("Invalid Token")) {
+            statusCode = HttpServletResponse.SC_UNAUTHORIZED;
+        } else if (reason.endsWith("Queue Is Full")) {
+            statusCode = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        } else {
+            statusCode = HttpServletResponse.SC_BAD_REQUEST;
+        }
+        sendErrorResponse(response, statusCode, reason);
+    }
+
+    /**
+     * Get the session token of the request from the Authorization header.
+     *
+     * @param request The HTTP request
+     * @return The token, or null if the request carries no Bearer token
+     */
+    protected String getBearerToken(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return authorization.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    /**
+     * Get the page size requested with the limit query parameter.
+     *
+     * @param request The HTTP request
+     * @return The requested limit, or the default limit if none is given
+     * @throws StoreException If the limit is not a number
+     */
+    protected int getPageLimit(HttpServletRequest request) throws StoreException {
+        String limit = request.getParameter(LIMIT_PARAMETER);
+        if (limit == null || limit.isEmpty()) {
+            return Page.DEFAULT_LIMIT;
+        }
+        try {
+            return Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            throw new StoreException("List", "Invalid Limit");
+        }
+    }
+
     /**
      * Extract the resource ID from the request path.
      * For example, "/api/v1/deals/DEAL-001" returns "DEAL-001"
@@ -92,13 +496,68 @@ public abstract class BaseServlet extends HttpServlet {
      */
     protected String extractResourceId(HttpServletRequest request) {
         String pathInfo = request.getPathInfo();
-        if (pathInfo == null || pathInfo.equals("/")) {
+        if (pathInfo == null || pathInfo.length() < 2) {
             return null;
         }
 
-        // Remove leading slash and extract ID
-        String[] parts = pathInfo.substring(1).split("/");
-        return parts.length > 0 ? parts[0] : null;
+        // Take the first segment after the leading slash
+        int end = pathInfo.indexOf('/', 1);
+        return pathInfo.substring(1, end < 0 ? pathInfo.length() : end);
+    }
+
+    /**
+     * Signals a request body above the maximum body size.
+     */
+    private static class BodyTooLargeException extends IOException {
+        public BodyTooLargeException(long maxBodySize) {
+            super("Request Body Exceeds " + maxBodySize + " Bytes");
+        }
+    }
+
+    /**
+     * Input stream failing once more than the limit has been read from it.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        public LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            //Never read more than one byte past the limit
+            int count = super.read(buffer, offset, (int) Math.min(length, limit - this.count + 1));
+            if (count > 0) {
+                count(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long read) throws IOException {
+            count += read;
+            if (count > limit) {
+                throw new BodyTooLargeException(limit);
+            }
+        }
     }
 
     /**
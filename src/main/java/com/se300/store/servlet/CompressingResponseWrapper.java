@@ -0,0 +1,328 @@
+package com.se300.store.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response wrapper compressing the body with the content coding negotiated from
+ * the Accept-Encoding header of the request. The body is held back until it grows
+ * past the threshold, small bodies are then sent as they are with a Content-Length,
+ * larger ones are streamed through the compressor as they are written.
+ *
+ * @author Sergey L. Sundukovskiy, Ph.D.
+ * @version 1.0
+ */
+class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private static final int COMPRESSOR_BUFFER_SIZE = 8192;
+
+    private enum State { BUFFERING, IDENTITY, COMPRESSED, DONE }
+
+    private final String encoding;
+    private final int threshold;
+    private final byte[] buffer;
+    private int count;
+    private State state = State.BUFFERING;
+    private long contentLength = -1;
+    private OutputStream target;
+    private CompressingOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * @param response The response to wrap
+     * @param encoding The negotiated content coding, gzip or deflate
+     * @param threshold Bodies up to that many bytes are sent uncompressed
+     */
+    CompressingResponseWrapper(HttpServletResponse response, String encoding, int threshold) {
+        super(response);
+        this.encoding = encoding;
+        this.threshold = threshold;
+        this.buffer = new byte[threshold];
+    }
+
+    /**
+     * Pick the content coding to use from an Accept-Encoding header, gzip is
+     * preferred over deflate when both are equally acceptable.
+     *
+     * @param acceptEncoding The Accept-Encoding header, may be null
+     * @return gzip, deflate or null if neither is acceptable
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+
+        float gzip = -1;
+        float deflate = -1;
+        float any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] parameters = part.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            float quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, quality);
+                case DEFLATE -> deflate = Math.max(deflate, quality);
+                case "*" -> any = quality;
+                default -> { }
+            }
+        }
+
+        //Codings that are not listed explicitly take the quality of the wildcard
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        //The length is only known for certain once the coding has been decided
+        if (state == State.IDENTITY || state == State.DONE) {
+            super.setContentLengthLong(length);
+        } else {
+            contentLength = length;
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return state != State.BUFFERING || super.isCommitted();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (state == State.BUFFERING) {
+            //Flushing commits the response, so whatever is buffered goes out uncompressed
+            startIdentity();
+        }
+        if (target != null) {
+            target.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (state == State.BUFFERING) {
+            count = 0;
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (state == State.BUFFERING) {
+            count = 0;
+            contentLength = -1;
+        }
+        super.reset();
+    }
+
+    @Override
+    public void sendError(int statusCode, String message) throws IOException {
+        state = State.DONE;
+        super.sendError(statusCode, message);
+    }
+
+    @Override
+    public void sendError(int statusCode) throws IOException {
+        state = State.DONE;
+        super.sendError(statusCode);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        state = State.DONE;
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Complete the body, either sending the buffered bytes as they are or
+     * writing the trailer of the compressed stream.
+     *
+     * @throws IOException If writing fails
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (state == State.BUFFERING) {
+            if (count > 0) {
+                super.setContentLength(count);
+            }
+            startIdentity();
+        }
+        if (state == State.COMPRESSED) {
+            target.close();
+        }
+        state = State.DONE;
+    }
+
+    /**
+     * Send the body as it is from now on
+     */
+    private void startIdentity() throws IOException {
+        state = State.IDENTITY;
+        if (count > 0) {
+            target = super.getOutputStream();
+            target.write(buffer, 0, count);
+            count = 0;
+        } else if (outputStream != null) {
+            target = super.getOutputStream();
+        }
+    }
+
+    /**
+     * Compress the body from now on, unless the content type is not worth compressing
+     */
+    private void startCompression() throws IOException {
+        if (!isCompressible(getContentType())) {
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            startIdentity();
+            return;
+        }
+
+        setHeader("Content-Encoding", encoding);
+        ServletOutputStream out = super.getOutputStream();
+        //Both streams own their deflater and release it on close
+        target = GZIP.equals(encoding)
+                ? new GZIPOutputStream(out, COMPRESSOR_BUFFER_SIZE)
+                : new DeflaterOutputStream(out);
+        state = State.COMPRESSED;
+        target.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.startsWith("application/json")
+                || type.startsWith("application/xml") || type.startsWith("application/javascript");
+    }
+
+    /**
+     * Output stream of the wrapper holding the body back until the coding is decided
+     */
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (state == State.BUFFERING) {
+                if (count < threshold) {
+                    buffer[count++] = (byte) b;
+                    return;
+                }
+                startCompression();
+            }
+            checkOpen();
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (state == State.BUFFERING) {
+                if (count + length <= threshold) {
+                    System.arraycopy(bytes, offset, buffer, count, length);
+                    count += length;
+                    return;
+                }
+                startCompression();
+            }
+            checkOpen();
+            target.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            //Flushing while buffering would force the coding decision too early
+            if (state != State.BUFFERING && target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Non-blocking output is not supported");
+        }
+
+        private void checkOpen() throws IOException {
+            if (state == State.DONE) {
+                throw new IOException("Response Body Is Complete");
+            }
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.se300.store.servlet;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -16,8 +23,8 @@ public class JsonHelper {
 
     // Singleton Gson instance configured with custom type adapters
     // This ensures consistent JSON formatting across the entire application
+    // Output is compact, pretty printing is only used when explicitly requested
     private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()  // Makes JSON output human-readable
             .serializeNulls()     // Include null fields in JSON output
             // Custom serializer for LocalDate (converts to ISO-8601 format: yyyy-MM-dd)
             .registerTypeAdapter(LocalDate.class, (JsonSerializer<LocalDate>)
@@ -33,8 +40,13 @@ public class JsonHelper {
                     (json, typeOfT, context) -> LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
             .create();
 
+    // Same configuration as GSON with human-readable output
+    private static final Gson PRETTY_GSON = GSON.newBuilder()
+            .setPrettyPrinting()
+            .create();
+
     /**
-     * Convert a Java object to JSON string.
+     * Convert a Java object to compact JSON string.
      *
      * @param object The object to serialize
      * @return JSON string representation
@@ -43,6 +55,44 @@ public class JsonHelper {
         return GSON.toJson(object);
     }
 
+    /**
+     * Convert a Java object to JSON string.
+     *
+     * @param object The object to serialize
+     * @param pretty true for human-readable output
+     * @return JSON string representation
+     */
+    public static String toJson(Object object, boolean pretty) {
+        return (pretty ? PRETTY_GSON : GSON).toJson(object);
+    }
+
+    /**
+     * Serialize a Java object straight to the writer without building
+     * the whole document in memory first.
+     *
+     * @param object The object to serialize
+     * @param writer The writer receiving the JSON, it is flushed but not closed
+     * @param pretty true for human-readable output
+     * @throws IOException If writing fails
+     */
+    public static void toJson(Object object, Writer writer, boolean pretty) throws IOException {
+        Gson gson = pretty ? PRETTY_GSON : GSON;
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        try {
+            if (object == null) {
+                jsonWriter.nullValue();
+            } else {
+                gson.toJson(object, object.getClass(), jsonWriter);
+            }
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+        jsonWriter.flush();
+    }
+
     /**
      * Convert a JSON string to a Java object of the specified type.
      *
@@ -55,6 +105,31 @@ public class JsonHelper {
         return GSON.fromJson(json, classOfT);
     }
 
+    /**
+     * Deserialize JSON read from the reader without copying it into a String first.
+     * The whole input must be a single JSON document.
+     *
+     * @param reader The reader supplying the JSON, it is not closed
+     * @param typeOfT The type to deserialize to, e.g. a TypeToken type for generic collections
+     * @param <T> The type parameter
+     * @return Deserialized object, or null if the input is empty
+     * @throws IOException If reading fails
+     * @throws JsonSyntaxException If the input is not valid JSON for the type
+     */
+    public static <T> T fromJson(Reader reader, Type typeOfT) throws IOException {
+        try {
+            return GSON.fromJson(reader, typeOfT);
+        } catch (JsonParseException e) {
+            //Gson reports read failures as parse errors, only malformed or truncated input is one
+            if (e.getCause() instanceof IOException ioException
+                    && !(ioException instanceof MalformedJsonException)
+                    && !(ioException instanceof EOFException)) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Get the configured Gson instance.
      * Useful for advanced serialization scenarios.
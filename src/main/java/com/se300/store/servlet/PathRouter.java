@@ -0,0 +1,247 @@
+package com.se300.store.servlet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trie of path templates such as /api/v1/stores/{storeId}/aisles/{aisleNumber}, built once
+ * when the routes are registered. Matching walks the request path segment by segment,
+ * comparing literal segments in place and recording path parameters as offsets into the
+ * path, so no regular expressions, split arrays or substrings are involved until a
+ * parameter is actually read. Literal segments take precedence over parameters.
+ *
+ * @author Sergey L. Sundukovskiy, Ph.D.
+ * @version 1.0
+ */
+public class PathRouter<H> {
+
+    private final Node<H> root = new Node<>();
+
+    /**
+     * Register the handler of a method and path template
+     *
+     * @param method HTTP method, e.g. GET
+     * @param template path template, parameters are written as {name}
+     * @param handler handler of the route
+     * @throws IllegalArgumentException if the route is already registered
+     */
+    public void add(String method, String template, H handler) {
+        Node<H> node = root;
+        List<String> names = new ArrayList<>();
+        for (String segment : template.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                names.add(segment.substring(1, segment.length() - 1));
+                if (node.parameter == null) {
+                    node.parameter = new Node<>();
+                }
+                node = node.parameter;
+            } else {
+                node = node.literal(segment);
+            }
+        }
+
+        if (node.routes.putIfAbsent(method, new Route<>(handler, names.toArray(new String[0]))) != null) {
+            throw new IllegalArgumentException("Route " + method + " " + template + " already exists");
+        }
+    }
+
+    /**
+     * Find the route of the request
+     *
+     * @param method HTTP method
+     * @param path decoded request path
+     * @return match or null if no route has a matching path
+     */
+    public Match<H> match(String method, String path) {
+        //Offsets of the path parameters: start and end of each one
+        int[] offsets = new int[16];
+        Lookup<H> lookup = new Lookup<>(method);
+        find(root, path, 0, offsets, 0, lookup);
+        if (lookup.route != null) {
+            return new Match<>(path, lookup.route, lookup.offsets);
+        }
+        if (lookup.pathMatch != null) {
+            return new Match<>(lookup.pathMatch.routes.keySet());
+        }
+        return null;
+    }
+
+    /**
+     * Depth first search preferring literal segments, backtracking to the parameter
+     * branch when the literal one does not lead to a route of the method
+     */
+    private boolean find(Node<H> node, String path, int position, int[] offsets, int count, Lookup<H> lookup) {
+
+        //Skip the separators in front of the next segment
+        int start = position;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+
+        if (start == path.length()) {
+            if (node.routes.isEmpty()) {
+                return false;
+            }
+            Route<H> route = node.routes.get(lookup.method);
+            if (route == null) {
+                if (lookup.pathMatch == null) {
+                    lookup.pathMatch = node;
+                }
+                return false;
+            }
+            lookup.route = route;
+            lookup.offsets = Arrays.copyOf(offsets, count * 2);
+            return true;
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+
+        Node<H> literal = node.findLiteral(path, start, end);
+        if (literal != null && find(literal, path, end, offsets, count, lookup)) {
+            return true;
+        }
+
+        if (node.parameter != null && count * 2 < offsets.length) {
+            offsets[count * 2] = start;
+            offsets[count * 2 + 1] = end;
+            return find(node.parameter, path, end, offsets, count + 1, lookup);
+        }
+        return false;
+    }
+
+    /**
+     * Result of routing a request
+     */
+    public static final class Match<H> {
+        private final String path;
+        private final Route<H> route;
+        private final int[] offsets;
+        private final Set<String> allowedMethods;
+
+        private Match(String path, Route<H> route, int[] offsets) {
+            this.path = path;
+            this.route = route;
+            this.offsets = offsets;
+            this.allowedMethods = null;
+        }
+
+        private Match(Set<String> allowedMethods) {
+            this.path = null;
+            this.route = null;
+            this.offsets = null;
+            this.allowedMethods = allowedMethods;
+        }
+
+        /**
+         * Check if the path matched but no route exists for the method
+         */
+        public boolean isMethodNotAllowed() {
+            return route == null;
+        }
+
+        /**
+         * Methods supported by the matched path when the method is not allowed, used for the Allow header
+         */
+        public String getAllowedMethods() {
+            return allowedMethods == null ? null : String.join(", ", allowedMethods);
+        }
+
+        /**
+         * Get the handler of the route
+         */
+        public H getHandler() {
+            return route == null ? null : route.handler;
+        }
+
+        /**
+         * Get the value of a path parameter
+         *
+         * @param name name of the parameter in the path template
+         * @return value or null if the template has no such parameter
+         */
+        public String getParameter(String name) {
+            if (route == null) {
+                return null;
+            }
+            String[] names = route.parameterNames;
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return path.substring(offsets[i * 2], offsets[i * 2 + 1]);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Handler of a route together with the names of its path parameters
+     */
+    private static final class Route<H> {
+        private final H handler;
+        private final String[] parameterNames;
+
+        private Route(H handler, String[] parameterNames) {
+            this.handler = handler;
+            this.parameterNames = parameterNames;
+        }
+    }
+
+    /**
+     * Node of the trie, one per path segment
+     */
+    private static final class Node<H> {
+        // Literal children scanned linearly since a node rarely has more than a handful
+        private String[] literals = new String[0];
+        private List<Node<H>> literalNodes = new ArrayList<>();
+        private Node<H> parameter;
+        private final Map<String, Route<H>> routes = new LinkedHashMap<>();
+
+        private Node<H> literal(String segment) {
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(segment)) {
+                    return literalNodes.get(i);
+                }
+            }
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literals[literals.length - 1] = segment;
+            Node<H> child = new Node<>();
+            literalNodes.add(child);
+            return child;
+        }
+
+        private Node<H> findLiteral(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literals.length; i++) {
+                String literal = literals[i];
+                if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                    return literalNodes.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * State of a single lookup
+     */
+    private static final class Lookup<H> {
+        private final String method;
+        private Route<H> route;
+        private int[] offsets;
+        private Node<H> pathMatch;
+
+        private Lookup(String method) {
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.se300.store;
+
+import com.se300.store.service.StoreService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark comparing the platform worker pool with virtual thread request execution.
+ * It is not a unit test and is not run by the build, start its main method with the
+ * test classpath after mvn test-compile.
+ *
+ * Optional settings: benchmark.clients (concurrent clients, 400), benchmark.requests
+ * (requests per client, 200), benchmark.stores (provisioned stores, 1000) and the
+ * smartstore.http.* connector properties, e.g. smartstore.http.maxThreads.
+ */
+public class ServerModeBenchmark {
+
+    private static final int PLATFORM_PORT = 18080;
+    private static final int VIRTUAL_PORT = 18081;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 400);
+        int requests = Integer.getInteger("benchmark.requests", 200);
+        int stores = Integer.getInteger("benchmark.stores", 1000);
+
+        StoreService storeService = new StoreService();
+        for (int i = 0; i < stores; i++) {
+            storeService.provisionStore(String.format("store_%05d", i), "Store " + i, "Address " + i, null);
+        }
+
+        run("platform threads", false, PLATFORM_PORT, clients, requests, stores);
+        run("virtual threads", true, VIRTUAL_PORT, clients, requests, stores);
+        System.exit(0);
+    }
+
+    private static void run(String mode, boolean virtualThreads, int port, int clients, int requests, int stores)
+            throws Exception {
+        System.setProperty("smartstore.http.port", String.valueOf(port));
+        System.setProperty("smartstore.http.virtualThreads", String.valueOf(virtualThreads));
+
+        SmartStoreApplication application = new SmartStoreApplication();
+        application.startNonBlocking();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            String baseUrl = "http://localhost:" + port + "/api/v1/stores";
+
+            //Warm up the JIT and the connection pool before measuring
+            execute(executor, client, baseUrl, clients, Math.max(1, requests / 10), stores);
+
+            long start = System.nanoTime();
+            long[] latencies = execute(executor, client, baseUrl, clients, requests, stores);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-16s %8d requests %10.0f req/s  p50 %6.2f ms  p99 %7.2f ms  max %7.2f ms%n",
+                    mode, latencies.length, latencies.length / (elapsed / 1e9),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6);
+        } finally {
+            application.stop();
+        }
+    }
+
+    /**
+     * Every client alternates between a page of the listing and a single store lookup
+     */
+    private static long[] execute(ExecutorService executor, HttpClient client, String baseUrl,
+                                  int clients, int requests, int stores) throws Exception {
+        long[] latencies = new long[clients * requests];
+        AtomicLong failures = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            int offset = c * requests;
+            futures.add(executor.submit(() -> {
+                for (int r = 0; r < requests; r++) {
+                    String url = r % 2 == 0
+                            ? baseUrl + "?limit=50"
+                            : baseUrl + "/" + String.format("store_%05d", (offset + r) % stores);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[offset + r] = System.nanoTime() - start;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        if (failures.get() > 0) {
+            System.out.println("  " + failures.get() + " requests failed");
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -2,6 +2,8 @@ package com.se300.store.controller.unit;
 
 import com.se300.store.controller.StoreController;
 import com.se300.store.controller.UserController;
+import com.se300.store.model.Aisle;
+import com.se300.store.model.AisleLocation;
 import com.se300.store.model.Store;
 import com.se300.store.model.User;
 import com.se300.store.service.AuthenticationService;
@@ -119,6 +121,38 @@ public class ControllerUnitTest {
     public void testStoreErrorHandlingWithMock() throws Exception {
     }
 
+    @Test
+    @DisplayName("Mock: Nested routes resolve path parameters and reject unknown methods")
+    public void testStoreRoutingWithMock() throws Exception {
+        Aisle aisle = new Aisle("a1", "Dairy", "Milk and cheese", AisleLocation.floor);
+        when(storeService.showAisle("store 1", "a1", "token1")).thenReturn(aisle);
+
+        given()
+                .header("Authorization", "Bearer token1")
+        .when()
+                .get("/api/v1/stores/store 1/aisles/a1")
+        .then()
+                .statusCode(200)
+                .body("number", equalTo("a1"))
+                .body("name", equalTo("Dairy"));
+
+        given()
+        .when()
+                .patch("/api/v1/stores/store1")
+        .then()
+                .statusCode(405)
+                .header("Allow", containsString("GET"));
+
+        given()
+        .when()
+                .get("/api/v1/stores/store1/unknown")
+        .then()
+                .statusCode(404);
+
+        verify(storeService).showAisle("store 1", "a1", "token1");
+        verifyNoMoreInteractions(storeService);
+    }
+
     // ==================== USER CONTROLLER MOCK TESTS ====================
 
     @Test
@@ -159,6 +193,50 @@ public class ControllerUnitTest {
     @Test
     @DisplayName("Mock: Register duplicate user - verify conflict handling")
     public void testRegisterDuplicateUserWithMock() throws Exception {
+        when(authenticationService.registerUser("user@store.com", "other", "Other User")).thenReturn(null);
+
+        given()
+        .when()
+                .post("/api/v1/users?email=user@store.com&password=other&name=Other User")
+        .then()
+                .statusCode(409);
+
+        verify(authenticationService, never()).updateUser(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Mock: User routes require the session of the user and never return the password")
+    public void testUserAccessWithMock() throws Exception {
+        User user = new User("user@store.com", "user123", "Regular User");
+        when(authenticationService.validateToken("token1")).thenReturn(user);
+        when(authenticationService.isAuthorized(user, "user@store.com")).thenReturn(true);
+        when(authenticationService.isAuthorized(user, "admin@store.com")).thenReturn(false);
+        when(authenticationService.getUserByEmail("user@store.com")).thenReturn(user);
+
+        given()
+                .header("Authorization", "Bearer token1")
+        .when()
+                .get("/api/v1/users/user@store.com")
+        .then()
+                .statusCode(200)
+                .body("email", equalTo("user@store.com"))
+                .body("$", not(hasKey("password")));
+
+        given()
+        .when()
+                .put("/api/v1/users/user@store.com?password=reset")
+        .then()
+                .statusCode(401);
+
+        given()
+                .header("Authorization", "Bearer token1")
+        .when()
+                .delete("/api/v1/users/admin@store.com")
+        .then()
+                .statusCode(403);
+
+        verify(authenticationService, never()).updateUser(any(), any(), any());
+        verify(authenticationService, never()).deleteUser(any());
     }
 
     @Test
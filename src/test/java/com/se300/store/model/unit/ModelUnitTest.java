@@ -3,6 +3,17 @@ package com.se300.store.model.unit;
 import com.se300.store.model.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -553,6 +564,62 @@ public class ModelUnitTest {
         assertEquals(2, aisle.getShelfMap().size());
     }
 
+    @Test
+    @DisplayName("Test Aisle keeps at most one Shelf per level")
+    public void testAisleShelfLevels() throws StoreException {
+        Aisle aisle = new Aisle("A1", "Groceries", "Food items", AisleLocation.floor);
+        Shelf high = aisle.addShelf("S1", "Top", ShelfLevel.high, "Desc", Temperature.ambient);
+
+        assertSame(high, aisle.getShelf(ShelfLevel.high));
+        assertNull(aisle.getShelf(ShelfLevel.low));
+        assertThrows(StoreException.class, () ->
+            aisle.addShelf("S2", "Top", ShelfLevel.high, "Desc", Temperature.ambient));
+        assertThrows(StoreException.class, () ->
+            aisle.addShelf("S1", "Bottom", ShelfLevel.low, "Desc", Temperature.ambient));
+        assertThrows(StoreException.class, () ->
+            aisle.addShelf("S3", "None", null, "Desc", Temperature.ambient));
+
+        aisle.addShelf("S2", "Middle", ShelfLevel.medium, "Desc", Temperature.ambient);
+        assertEquals(2, aisle.getShelfMap().size());
+        assertThrows(UnsupportedOperationException.class, () -> aisle.getShelfMap().remove("S1"));
+    }
+
+    @Test
+    @DisplayName("Test Aisle Product index is updated as Inventory is added to its Shelves")
+    public void testAisleProductIndex() throws StoreException {
+        Aisle aisle = new Aisle("A1", "Groceries", "Food items", AisleLocation.floor);
+        Shelf high = aisle.addShelf("S1", "Top", ShelfLevel.high, "Desc", Temperature.ambient);
+        Shelf low = aisle.addShelf("S2", "Bottom", ShelfLevel.low, "Desc", Temperature.ambient);
+
+        assertTrue(aisle.getProductInventory("prod1").isEmpty());
+
+        Inventory first = high.addInventory("inv1", "store1", "A1", "S1", 10, 5, "prod1", InventoryType.standard);
+        assertEquals(1, aisle.getProductInventory("prod1").size());
+        assertSame(first, aisle.getProductInventory("prod1").get(0));
+
+        low.addInventory("inv2", "store1", "A1", "S2", 10, 5, "prod1", InventoryType.standard);
+        low.addInventory("inv3", "store1", "A1", "S2", 10, 5, "prod2", InventoryType.standard);
+        assertEquals(2, aisle.getProductInventory("prod1").size());
+        assertEquals(1, aisle.getProductInventory("prod2").size());
+
+        // Shelf that does not belong to an Aisle does not affect any index
+        Shelf standalone = new Shelf("S3", "Loose", ShelfLevel.medium, "Desc", Temperature.ambient);
+        standalone.addInventory("inv4", "store1", "A1", "S3", 10, 5, "prod1", InventoryType.standard);
+        assertEquals(2, aisle.getProductInventory("prod1").size());
+
+        // Changing the Product moves the Inventory in the index
+        first.setProductId("prod2");
+        assertEquals(1, aisle.getProductInventory("prod1").size());
+        assertEquals(2, aisle.getProductInventory("prod2").size());
+        assertTrue(aisle.getProductInventory("prod2").contains(first));
+
+        // Inventory taken off the Shelf leaves the index and is no longer moved by its setter
+        high.removeInventory("inv1");
+        first.setProductId("prod1");
+        assertEquals(1, aisle.getProductInventory("prod1").size());
+        assertEquals(1, aisle.getProductInventory("prod2").size());
+    }
+
     @Test
     @DisplayName("Test Shelf model")
     public void testShelfModel() throws StoreException {
@@ -651,6 +718,43 @@ public class ModelUnitTest {
         assertEquals(200, inventory.getCount());
     }
 
+    @Test
+    @DisplayName("Test Inventory reserve and release stay within bounds under concurrency")
+    public void testInventoryReserveRelease() throws InterruptedException {
+        InventoryLocation location = new InventoryLocation("store1", "A1", "S1");
+        Inventory inventory = new Inventory("inv1", location, 100, 50, "prod1", InventoryType.standard);
+
+        assertTrue(inventory.reserve(10));
+        assertEquals(40, inventory.getCount());
+        assertFalse(inventory.reserve(41));
+        assertFalse(inventory.reserve(-1));
+        assertTrue(inventory.release(60));
+        assertEquals(100, inventory.getCount());
+        assertFalse(inventory.release(1));
+        assertFalse(inventory.release(-1));
+
+        // 8 threads try to reserve 20 units each from a shelf of 100
+        inventory.setCount(100);
+        AtomicInteger reserved = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 20; j++) {
+                    if (inventory.reserve(1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, reserved.get());
+        assertEquals(0, inventory.getCount());
+    }
+
     @Test
     @DisplayName("Test Device models")
     public void testDeviceModels() {
@@ -703,6 +807,93 @@ public class ModelUnitTest {
         assertDoesNotThrow(() -> appliance.processCommand("STOCK_SHELF"));
     }
     
+    @Test
+    @DisplayName("Test Sensor readings are kept in a bounded series with rollups")
+    public void testSensorSeries() {
+        Sensor sensor = new Sensor("thermo1", "Thermometer", new StoreLocation("store1", "A1"), "camera");
+        long start = 1_800_000_000_000L;
+        sensor.processEvent("21.5 celsius", start);
+        sensor.processEvent("customer_detected", start + 30_000);
+        sensor.processEvent("23.5", start + 90_000);
+
+        SensorSeries series = sensor.getSeries();
+        SensorSeries.Readings readings = series.getReadings(start, start + 60_000);
+        assertEquals(2, readings.size());
+        assertEquals(start + 30_000, readings.getTimestamps()[1]);
+        assertEquals(21.5f, readings.getValues()[0]);
+        assertEquals(1f, readings.getValues()[1]);
+
+        List<SensorSeries.Rollup> hours = series.getRollups(SensorSeries.Resolution.HOUR, start, start + 1);
+        assertEquals(1, hours.size());
+        assertEquals(3, hours.get(0).getCount());
+        assertEquals(23.5, hours.get(0).getMax());
+        assertEquals(1, hours.get(0).getMin());
+
+        //Only the most recent readings are kept
+        for (int i = 0; i < SensorSeries.READING_CAPACITY; i++) {
+            series.record(start + 120_000 + i, i);
+        }
+        assertEquals(SensorSeries.READING_CAPACITY, series.size());
+        readings = series.getReadings(0, Long.MAX_VALUE);
+        assertEquals(start + 120_000, readings.getTimestamps()[0]);
+        assertEquals(start + 120_000 + SensorSeries.READING_CAPACITY - 1,
+                readings.getTimestamps()[readings.size() - 1]);
+        assertEquals(3, series.getRollups(SensorSeries.Resolution.MINUTE, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    @DisplayName("Test Appliance coalesces redundant and superseded commands")
+    public void testApplianceCommandCoalescing() throws Exception {
+        //Repeating a distinct instruction is deliberate and executes again
+        Appliance robot = new Appliance("robot1", "Robot1", new StoreLocation("store1", "A1"), "robot");
+        assertEquals(ApplianceState.idle, robot.getState());
+        robot.processCommand("CLEAN_FLOOR A1");
+        robot.processCommand("CLEAN_FLOOR A1");
+        assertEquals(2, robot.getExecutedCount());
+        assertEquals("CLEAN_FLOOR A1", robot.getActiveCommand());
+        assertEquals(0, robot.getCommandQueue().getCoalescedCount());
+
+        //Repeating the setting in effect is redundant
+        Appliance speaker = new Appliance("speaker1", "Speaker1", new StoreLocation("store1", "A1"), "speaker");
+        speaker.processCommand("VOLUME 5");
+        speaker.processCommand("VOLUME 5");
+        assertEquals(1, speaker.getExecutedCount());
+        assertEquals(1, speaker.getCommandQueue().getCoalescedCount());
+
+        //Commands submitted while the first one is executing are coalesced and drained in a batch
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ApplianceCommandQueue queue = new ApplianceCommandQueue(commands -> {
+            batches.add(List.copyOf(commands));
+            executing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, ApplianceType.speaker::getSetting);
+        Thread drainer = new Thread(() -> queue.submit("STOCK_SHELF S1"));
+        drainer.start();
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+        assertTrue(queue.submit("VOLUME 5"));
+        assertFalse(queue.submit("VOLUME 5"));
+        assertTrue(queue.submit("speak hello"));
+        assertFalse(queue.submit("speak hello"));
+        assertTrue(queue.submit("speak goodbye"));
+        assertTrue(queue.submit("VOLUME 7"));
+        assertEquals(3, queue.size());
+        release.countDown();
+        drainer.join(5000);
+
+        assertEquals(List.of(List.of("STOCK_SHELF S1"), List.of("speak hello", "speak goodbye", "VOLUME 7")),
+                batches);
+        assertEquals(3, queue.getCoalescedCount());
+        assertEquals(0, queue.size());
+        assertFalse(queue.submit("VOLUME 7"));
+    }
+
     @Test
     @DisplayName("Test SensorType enum")
     public void testSensorTypeEnum() {
@@ -733,4 +924,61 @@ public class ModelUnitTest {
         assertTrue(ApplianceType.robot.ordinal() >= 0);
         assertTrue(ApplianceType.turnstile.ordinal() >= 0);
     }
+
+    @Test
+    @DisplayName("Test CommandProcessor dispatch and argument binding")
+    public void testCommandProcessorDispatch() {
+        CommandProcessor processor = new CommandProcessor();
+
+        CommandException unknown = assertThrows(CommandException.class,
+                () -> processor.processCommand("create   events  rob_1"));
+        assertEquals("Unrecognized Command", unknown.getReason());
+        assertEquals("create events rob_1", unknown.getCommand());
+
+        CommandException missing = assertThrows(CommandException.class,
+                () -> processor.processCommand("define store store_cp name Chapman"));
+        assertEquals("Missing Argument At Position 6", missing.getReason());
+
+        CommandException invalidEnum = assertThrows(CommandException.class,
+                () -> processor.processCommand("define aisle store_cp:aisle_1 name A1 description \"Aisle One\" location roof"));
+        assertEquals("Invalid AisleLocation roof", invalidEnum.getReason());
+
+        CommandException invalidLocation = assertThrows(CommandException.class,
+                () -> processor.processCommand("show shelf store_cp:aisle_1"));
+        assertEquals("Invalid Location store_cp:aisle_1", invalidLocation.getReason());
+    }
+
+    @Test
+    @DisplayName("Test CommandScriptExecutor skips queued commands once the script is aborted")
+    public void testCommandScriptExecutorAbort(@TempDir Path directory) throws Exception {
+        Path script = directory.resolve("abort.script");
+        Files.write(script, List.of("show store s1", "show store s2", "show store s2", "show store s3"));
+
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CommandAPI commandAPI = new CommandAPI() {
+            @Override
+            public void processCommand(String command) {
+                executed.add(command);
+                if (command.endsWith("s1")) {
+                    try {
+                        //Give the reader time to queue the remaining commands
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("Unexpected failure");
+                }
+            }
+
+            @Override
+            public void processCommandFile(String fileName) {
+            }
+        };
+
+        //Single worker runs the Store chains in the order they were queued
+        CommandScriptExecutor executor = new CommandScriptExecutor(commandAPI, 1);
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> executor.execute(script));
+        assertEquals("Unexpected failure", failure.getMessage());
+        assertEquals(List.of("show store s1"), executed);
+    }
 }
@@ -1,13 +1,18 @@
 package com.se300.store.repository.integration;
 
 import com.se300.store.data.DataManager;
+import com.se300.store.data.Page;
 import com.se300.store.model.Store;
 import com.se300.store.model.User;
 import com.se300.store.repository.StoreRepository;
 import com.se300.store.repository.UserRepository;
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -76,4 +81,163 @@ public class RepositoryIntegrationTest {
     @DisplayName("Integration: Concurrent repository operations")
     public void testConcurrentOperations() {
     }
+
+    @Test
+    @Order(8)
+    @DisplayName("Integration: Shared DataManager regions with per entry writes")
+    public void testDataManagerRegions() throws InterruptedException {
+        assertSame(dataManager, DataManager.getInstance());
+        assertTrue(dataManager.containsRegion("stores"));
+        assertThrows(IllegalArgumentException.class, () -> dataManager.region("stores", User.class));
+
+        //Repositories created on the same DataManager share the same data
+        StoreRepository otherRepository = new StoreRepository(DataManager.getInstance());
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            int writer = i;
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 250; j++) {
+                    String storeId = "region_" + writer + "_" + j;
+                    (writer % 2 == 0 ? storeRepository : otherRepository)
+                            .save(new Store(storeId, "Address", "Description"));
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Map<String, Store> stores = storeRepository.findAll();
+        assertEquals(1000, stores.keySet().stream().filter(id -> id.startsWith("region_")).count());
+        assertTrue(otherRepository.existsById("region_3_249"));
+
+        //Clearing the DataManager keeps the regions usable
+        dataManager.clear();
+        assertFalse(storeRepository.existsById("region_0_0"));
+        assertTrue(new UserRepository(dataManager).existsByEmail("admin@store.com"));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Integration: findAll hands out a shared snapshot until the next write")
+    public void testFindAllSnapshot() {
+        storeRepository.save(new Store("snapshot_1", "Address", "Description"));
+
+        Map<String, Store> first = storeRepository.findAll();
+        assertSame(first, storeRepository.findAll());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove("snapshot_1"));
+
+        storeRepository.save(new Store("snapshot_2", "Address", "Description"));
+        Map<String, Store> second = storeRepository.findAll();
+        assertNotSame(first, second);
+        assertFalse(first.containsKey("snapshot_2"));
+        assertTrue(second.containsKey("snapshot_2"));
+
+        //Deleting a missing store is not a write
+        storeRepository.delete("snapshot_missing");
+        assertSame(second, storeRepository.findAll());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Integration: Cursor pagination walks the stores in ID order exactly once")
+    public void testFindPage() {
+        for (int i = 0; i < 7; i++) {
+            storeRepository.save(new Store("page_" + i, "Address", "Description"));
+        }
+
+        List<String> ids = new ArrayList<>();
+        Page<Store> page = storeRepository.findPage(null, 3);
+        ids.add(page.getItems().get(0).getId());
+        assertEquals(3, page.getItems().size());
+
+        //Stores added or removed behind the cursor do not shift the following pages
+        storeRepository.delete(page.getItems().get(0).getId());
+        storeRepository.save(new Store("a_page", "Address", "Description"));
+        page.getItems().stream().skip(1).forEach(store -> ids.add(store.getId()));
+        while (page.getNextCursor() != null) {
+            page = storeRepository.findPage(page.getNextCursor(), 3);
+            page.getItems().forEach(store -> ids.add(store.getId()));
+        }
+
+        List<String> expected = new ArrayList<>(storeRepository.findAll().keySet());
+        expected.remove("a_page");
+        expected.add(ids.get(0));
+        expected.sort(null);
+        assertEquals(expected, ids);
+
+        assertThrows(IllegalArgumentException.class, () -> storeRepository.findPage("%%", 3));
+        assertThrows(IllegalArgumentException.class, () -> storeRepository.findPage(null, 0));
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Integration: Pagination index agrees with the entries under concurrent saves and deletes")
+    public void testFindPageConcurrentWrites() throws InterruptedException {
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 2000; j++) {
+                    String storeId = "race_" + (j % 8);
+                    if (j % 3 == 0) {
+                        storeRepository.delete(storeId);
+                    } else {
+                        storeRepository.save(new Store(storeId, "Address", "Description"));
+                    }
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        List<String> ids = new ArrayList<>();
+        Page<Store> page = storeRepository.findPage(null, 5);
+        page.getItems().forEach(store -> ids.add(store.getId()));
+        while (page.getNextCursor() != null) {
+            page = storeRepository.findPage(page.getNextCursor(), 5);
+            page.getItems().forEach(store -> ids.add(store.getId()));
+        }
+
+        List<String> expected = new ArrayList<>(storeRepository.findAll().keySet());
+        expected.sort(null);
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Integration: Snapshot read right after a save never returns the previous store")
+    public void testFindAllConcurrentSaves() throws InterruptedException {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> stale = Collections.synchronizedList(new ArrayList<>());
+        Thread[] readers = new Thread[2];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                while (writing.get()) {
+                    storeRepository.findAll();
+                }
+            });
+            readers[i].start();
+        }
+
+        //A stale snapshot cached by a reader stays in place until the next save, so the writer sees it
+        try {
+            for (int i = 0; i < 100000; i++) {
+                storeRepository.save(new Store("snapshot_store", "Address", "Description " + i));
+                Store found = storeRepository.findAll().get("snapshot_store");
+                if (!found.getDescription().equals("Description " + i)) {
+                    stale.add(found.getDescription() + " instead of Description " + i);
+                }
+            }
+        } finally {
+            writing.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+
+        assertEquals(List.of(), stale);
+    }
 }
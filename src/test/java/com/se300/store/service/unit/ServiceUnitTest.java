@@ -1,21 +1,44 @@
 package com.se300.store.service.unit;
 
+import com.se300.store.data.CommandJournal;
 import com.se300.store.data.DataManager;
 import com.se300.store.model.*;
 import com.se300.store.repository.UserRepository;
 import com.se300.store.service.AuthenticationService;
+import com.se300.store.service.BatchOperation;
+import com.se300.store.service.BatchResult;
+import com.se300.store.service.DeviceEventPipeline;
+import com.se300.store.service.EntityRegistry;
+import com.se300.store.service.ProvisioningResult;
+import com.se300.store.service.SessionCache;
+import com.se300.store.service.StoreLayout;
 import com.se300.store.service.StoreService;
+import com.se300.store.service.StoreWriteLanes;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -94,4 +117,572 @@ public class ServiceUnitTest {
     @DisplayName("Test StoreService operations (no mocking needed - uses static maps)")
     public void testStoreServiceOperations() throws StoreException {
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test EntityRegistry allows only one of the concurrent provisioning calls to succeed")
+    public void testEntityRegistryConcurrentProvisioning() throws InterruptedException {
+        EntityRegistry registry = new EntityRegistry();
+        int threads = 8;
+        AtomicInteger registered = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (registry.putStoreIfAbsent(new Store("store1", "Address", "Description")) == null) {
+                    registered.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, registered.get());
+        assertEquals(1, registry.getStores().size());
+        assertNotNull(registry.getStore("store1"));
+        assertThrows(StoreException.class, () -> registry.registerInventory("missing",
+                new Inventory("inv1", new InventoryLocation("missing", "A1", "S1"), 10, 5,
+                        "prod1", InventoryType.standard)));
+    }
+
+    @Test
+    @DisplayName("Test EntityRegistry moves a Customer atomically and forgets the Customers of a removed Store")
+    public void testEntityRegistryCustomerMoves() {
+        EntityRegistry registry = new EntityRegistry();
+        for (String storeId : List.of("storeA", "storeB", "storeC")) {
+            registry.putStoreIfAbsent(new Store(storeId, "Address", "Description"));
+        }
+
+        assertTrue(registry.moveCustomer("cust1", null, "storeA"));
+        assertTrue(registry.moveCustomer("cust2", null, "storeA"));
+        //Both moves read storeA, only the first one wins
+        assertTrue(registry.moveCustomer("cust1", "storeA", "storeB"));
+        assertFalse(registry.moveCustomer("cust1", "storeA", "storeC"));
+        assertEquals("storeB", registry.getCustomerStoreId("cust1"));
+
+        registry.removeStore("storeA");
+        assertNull(registry.getCustomerStoreId("cust2"));
+        assertEquals("storeB", registry.getCustomerStoreId("cust1"));
+    }
+
+    @Test
+    @DisplayName("Test StoreService mutations routed through single writer Store lanes")
+    public void testStoreServiceWriteLanes() throws Exception {
+        StoreService.clearAllMaps();
+        StoreWriteLanes writeLanes = new StoreWriteLanes(4);
+        StoreService laneService = new StoreService(null, writeLanes);
+        laneService.provisionStore("lane1", "Lane Store", "Address", null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 100; i++) {
+            String aisleNumber = "A" + i;
+            executor.submit(() -> laneService.provisionAisle("lane1", aisleNumber, "Aisle", "Desc",
+                    AisleLocation.floor, null));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertNotNull(laneService.showAisle("lane1", "A99", null));
+        StoreException exception = assertThrows(StoreException.class, () ->
+                laneService.provisionAisle("lane1", "A1", "Aisle", "Desc", AisleLocation.floor, null));
+        assertEquals("Aisle Already Exists", exception.getReason());
+
+        //Concurrent moves of the same Customer leave him/her in exactly one Store
+        laneService.provisionStore("lane2", "Lane Store", "Address", null);
+        laneService.provisionAisle("lane2", "A1", "Aisle", "Desc", AisleLocation.floor, null);
+        laneService.provisionCustomer("laneCust", "Kody", "Wong", CustomerType.registered,
+                "kody.wong@example.com", "789 Pine Rd", null);
+        ExecutorService movers = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            String storeId = i % 2 == 0 ? "lane1" : "lane2";
+            movers.submit(() -> {
+                try {
+                    laneService.updateCustomer("laneCust", storeId, "A1", null);
+                } catch (StoreException e) {
+                    assertEquals("Customer Is Being Moved", e.getReason());
+                }
+            });
+        }
+        movers.shutdown();
+        assertTrue(movers.awaitTermination(5, TimeUnit.SECONDS));
+
+        String storeId = laneService.showCustomer("laneCust", null).getStoreLocation().getStoreId();
+        String otherStoreId = storeId.equals("lane1") ? "lane2" : "lane1";
+        assertNotNull(laneService.showStore(storeId, null).getCustomer("laneCust"));
+        assertNull(laneService.showStore(otherStoreId, null).getCustomer("laneCust"));
+
+        writeLanes.shutdown();
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test StoreService moves Customer between Stores using the customer location index")
+    public void testUpdateCustomerChangingStores() throws StoreException {
+        StoreService.clearAllMaps();
+        storeService.provisionStore("move1", "First", "Address", null);
+        storeService.provisionStore("move2", "Second", "Address", null);
+        storeService.provisionAisle("move1", "A1", "Aisle", "Desc", AisleLocation.floor, null);
+        storeService.provisionAisle("move2", "A1", "Aisle", "Desc", AisleLocation.floor, null);
+        storeService.provisionCustomer("mover", "Kody", "Wong", CustomerType.registered,
+                "kody.wong@example.com", "789 Pine Rd", null);
+
+        Customer customer = storeService.updateCustomer("mover", "move1", "A1", null);
+        assertNotNull(storeService.showStore("move1", null).getCustomer("mover"));
+        assertNotNull(customer.getLastSeen());
+
+        customer = storeService.updateCustomer("mover", "move2", "A1", null);
+        assertNull(storeService.showStore("move1", null).getCustomer("mover"));
+        assertNotNull(storeService.showStore("move2", null).getCustomer("mover"));
+        assertEquals("move2", customer.getStoreLocation().getStoreId());
+        assertNull(customer.getLastSeen());
+
+        // Staying in the same Store only updates the location
+        customer = storeService.updateCustomer("mover", "move2", "A1", null);
+        assertNotNull(customer.getLastSeen());
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test StoreService leaves no Inventory on the Shelf when the Inventory id is taken")
+    public void testProvisionDuplicateInventory() throws StoreException {
+        StoreService.clearAllMaps();
+        storeService.provisionProduct("dupProd", "Milk", "Whole Milk", "1gal", "Dairy", 3.99,
+                Temperature.refrigerated, null);
+        for (String storeId : List.of("dup1", "dup2")) {
+            storeService.provisionStore(storeId, "Store", "Address", null);
+            storeService.provisionAisle(storeId, "A1", "Dairy", "Cold", AisleLocation.floor, null);
+            storeService.provisionShelf(storeId, "A1", "S1", "Cold Shelf", ShelfLevel.low, "Desc",
+                    Temperature.refrigerated, null);
+        }
+        storeService.provisionInventory("dupInv", "dup1", "A1", "S1", 20, 10, "dupProd",
+                InventoryType.standard, null);
+
+        StoreException exception = assertThrows(StoreException.class, () -> storeService.provisionInventory(
+                "dupInv", "dup2", "A1", "S1", 20, 5, "dupProd", InventoryType.standard, null));
+        assertEquals("Inventory Already Exists", exception.getReason());
+
+        Aisle aisle = storeService.showAisle("dup2", "A1", null);
+        assertTrue(aisle.getShelf("S1").getInventoryMap().isEmpty());
+        assertTrue(aisle.getProductInventory("dupProd").isEmpty());
+        assertEquals("dup1", storeService.showInventory("dupInv", null).getInventoryLocation().getStoreId());
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test StoreService provisions a whole Store layout and reports per entry errors")
+    public void testProvisionLayout() throws StoreException {
+        StoreService.clearAllMaps();
+        storeService.provisionProduct("layoutProd", "Milk", "Whole Milk", "1gal", "Dairy", 3.99,
+                Temperature.refrigerated, null);
+
+        StoreLayout layout = new StoreLayout("layout1", "Layout Store", "Address");
+        layout.addAisle("A1", "Dairy", "Cold", AisleLocation.floor);
+        layout.addAisle("A1", "Duplicate", "Cold", AisleLocation.floor);
+        layout.addShelf("A1", "S1", "Cold Shelf", ShelfLevel.low, "Desc", Temperature.refrigerated);
+        layout.addShelf("A9", "S2", "Missing Aisle", ShelfLevel.low, "Desc", Temperature.refrigerated);
+        layout.addInventory("layoutInv", "A1", "S1", 20, 10, "layoutProd", InventoryType.standard);
+        layout.addInventory(null, "A1", "S1", 20, 10, "layoutProd", InventoryType.standard);
+        layout.addDevice("layoutCam", "Camera", "camera", "A1");
+
+        ProvisioningResult result = storeService.provisionLayout(layout, null);
+
+        assertEquals(1, result.getAisleCount());
+        assertEquals(1, result.getShelfCount());
+        assertEquals(1, result.getInventoryCount());
+        assertEquals(1, result.getDeviceCount());
+        assertFalse(result.isSuccessful());
+        assertEquals(3, result.getErrors().size());
+        assertEquals("Aisle Already Exists", result.getErrors().get(0).getReason());
+        assertEquals(10, storeService.showInventory("layoutInv", null).getCount());
+        assertNotNull(storeService.showDevice("layoutCam", null));
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test StoreService applies batches and reports a result per operation")
+    public void testBatchOperations() throws StoreException {
+        StoreService.clearAllMaps();
+        storeService.provisionProduct("batchProd", "Milk", "Whole Milk", "1gal", "Dairy", 3.99,
+                Temperature.refrigerated, null);
+        storeService.provisionStore("batch1", "Batch Store", "Address", null);
+        storeService.provisionStore("batch2", "Other Store", "Address", null);
+
+        List<BatchResult> results = storeService.applyStoreBatch("batch1", List.of(
+                BatchOperation.provisionAisle("A1", "Dairy", "Cold", AisleLocation.floor),
+                BatchOperation.provisionShelf("A1", "S1", "Cold Shelf", ShelfLevel.low, "Desc",
+                        Temperature.refrigerated),
+                BatchOperation.provisionInventory("batchInv", "A1", "S1", 20, 10, "batchProd",
+                        InventoryType.standard),
+                BatchOperation.updateInventory("batchInv", 5),
+                BatchOperation.provisionDevice("batchCam", "Camera", "camera", "A9"),
+                new BatchOperation()), null);
+
+        assertEquals(6, results.size());
+        assertTrue(results.get(3).isSuccessful());
+        assertEquals("Aisle Does Not Exist", results.get(4).getReason());
+        assertEquals("Operation Is Missing", results.get(5).getReason());
+        assertEquals(15, storeService.showInventory("batchInv", null).getCount());
+
+        //Inventory of another Store is not reachable from a Store batch
+        storeService.applyStoreBatch("batch2", List.of(
+                BatchOperation.provisionAisle("A1", "Dairy", "Cold", AisleLocation.floor),
+                BatchOperation.provisionShelf("A1", "S1", "Cold Shelf", ShelfLevel.low, "Desc",
+                        Temperature.refrigerated),
+                BatchOperation.provisionInventory("batchInv2", "A1", "S1", 20, 10, "batchProd",
+                        InventoryType.standard)), null);
+        assertFalse(storeService.applyStoreBatch("batch2",
+                List.of(BatchOperation.updateInventory("batchInv", 1)), null).get(0).isSuccessful());
+
+        results = storeService.updateInventoryBatch(List.of(
+                BatchOperation.updateInventory("batchInv", 5),
+                BatchOperation.updateInventory("batchInv2", 10),
+                BatchOperation.updateInventory("missingInv", 1)), null);
+        assertTrue(results.get(0).isSuccessful());
+        assertTrue(results.get(1).isSuccessful());
+        assertEquals("Inventory Does Not Exist", results.get(2).getReason());
+        assertEquals(20, storeService.showInventory("batchInv", null).getCount());
+        assertEquals(20, storeService.showInventory("batchInv2", null).getCount());
+
+        assertThrows(StoreException.class, () -> storeService.applyStoreBatch("missing",
+                List.of(BatchOperation.updateInventory("batchInv", 1)), null));
+        assertThrows(StoreException.class, () -> storeService.updateInventoryBatch(List.of(), null));
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test DeviceEventPipeline handles the events of a Device in order off the request thread")
+    public void testDeviceEventPipeline() throws Exception {
+        StoreService.clearAllMaps();
+        ConcurrentHashMap<String, List<String>> handled = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        try (DeviceEventPipeline pipeline = new DeviceEventPipeline(2, 16, (device, event, timestamp) -> {
+            threads.add(Thread.currentThread().getName());
+            handled.computeIfAbsent(device.getId(), id -> new CopyOnWriteArrayList<>()).add(event);
+        })) {
+            StoreService pipelined = new StoreService(null, null, null, null, pipeline);
+            pipelined.provisionStore("eventStore", "Event Store", "Address", null);
+            pipelined.provisionAisle("eventStore", "A1", "Dairy", "Cold", AisleLocation.floor, null);
+            pipelined.provisionDevice("eventCam", "Camera", "camera", "eventStore", "A1", null);
+            pipelined.provisionDevice("eventMic", "Microphone", "microphone", "eventStore", "A1", null);
+
+            int published = 0;
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    pipelined.raiseEvent(i % 2 == 0 ? "eventCam" : "eventMic", Integer.toString(i), null);
+                    published++;
+                } catch (StoreException e) {
+                    //Ring is full, the consumer has fallen behind
+                    assertEquals("Event Queue Is Full", e.getReason());
+                }
+            }
+            assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+
+            assertEquals(published, handled.values().stream().mapToInt(List::size).sum());
+            assertEquals(1000 - published, pipeline.getRejectedCount());
+            for (List<String> events : handled.values()) {
+                for (int i = 1; i < events.size(); i++) {
+                    assertTrue(Integer.parseInt(events.get(i - 1)) < Integer.parseInt(events.get(i)));
+                }
+            }
+            assertFalse(threads.contains(Thread.currentThread().getName()));
+        }
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test DeviceEventPipeline handles every event it accepted before it was closed")
+    public void testDeviceEventPipelineClose() throws Exception {
+        Device device = new Appliance("closeRobot", "Robot", null, "robot");
+        for (int round = 0; round < 20; round++) {
+            AtomicLong handled = new AtomicLong();
+            AtomicLong accepted = new AtomicLong();
+            DeviceEventPipeline pipeline = new DeviceEventPipeline(1, 1 << 16,
+                    (target, event, timestamp) -> handled.incrementAndGet());
+
+            //Producers keep publishing until the pipeline refuses, close races with their last events
+            Thread[] producers = new Thread[2];
+            for (int i = 0; i < producers.length; i++) {
+                producers[i] = new Thread(() -> {
+                    while (pipeline.publish(device, "event")) {
+                        accepted.incrementAndGet();
+                    }
+                });
+                producers[i].start();
+            }
+            while (accepted.get() < 100) {
+                Thread.onSpinWait();
+            }
+            pipeline.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(accepted.get(), handled.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Test StoreService rebuilds its state from the command journal")
+    public void testCommandJournalRecovery(@TempDir Path directory) throws Exception {
+        StoreService.clearAllMaps();
+        Path path = directory.resolve("store.journal");
+
+        try (CommandJournal journal = CommandJournal.open(path)) {
+            StoreService journaled = new StoreService(null, null, journal);
+            journaled.provisionStore("journalStore", "Journal Store", "Address", null);
+            journaled.provisionAisle("journalStore", "A1", "Dairy", "Cold", AisleLocation.floor, null);
+            journaled.provisionShelf("journalStore", "A1", "S1", "Shelf", ShelfLevel.low, null,
+                    Temperature.refrigerated, null);
+            journaled.provisionProduct("journalProd", "Milk", "Whole Milk", "1gal", "Dairy", 3.99,
+                    Temperature.refrigerated, null);
+            journaled.provisionInventory("journalInv", "journalStore", "A1", "S1", 20, 10, "journalProd",
+                    InventoryType.standard, null);
+            journaled.updateInventory("journalInv", 5, null);
+            assertThrows(StoreException.class, () -> journaled.updateInventory("journalInv", 100, null));
+        }
+
+        //Simulate a record torn by a crash
+        Files.write(path, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+        StoreService.clearAllMaps();
+
+        try (CommandJournal journal = CommandJournal.open(path)) {
+            StoreService recovered = new StoreService(null, null, journal);
+            assertEquals(6, recovered.recoverJournal());
+            assertEquals(15, recovered.showInventory("journalInv", null).getCount());
+            assertEquals(Temperature.refrigerated,
+                    recovered.showShelf("journalStore", "A1", "S1", null).getTemperature());
+            assertEquals(3.99, recovered.showProduct("journalProd", null).getPrice());
+
+            //New records follow the last valid one
+            recovered.provisionBasket("journalBasket", null);
+        }
+
+        StoreService.clearAllMaps();
+        try (CommandJournal journal = CommandJournal.open(path)) {
+            assertEquals(7, new StoreService(null, null, journal).recoverJournal());
+            assertNotNull(storeService.showBasket("journalBasket", null));
+        }
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test StoreService fails the recovery on journal records it can not apply")
+    public void testCommandJournalRecoveryFailures(@TempDir Path directory) throws Exception {
+        StoreService.clearAllMaps();
+        Path path = directory.resolve("store.journal");
+
+        try (CommandJournal journal = CommandJournal.open(path)) {
+            journal.append((byte) 0, "failStore", "Journal Store", "Address");
+            journal.append((byte) 1, "failStore", "A1", "Dairy", "Cold", "floor");
+            journal.append((byte) 2, "failStore", "A1", "S1", "Shelf", "low", "Desc", "refrigerated");
+            //Inventory of a Product the journal only provisions later
+            journal.append((byte) 3, "failInv", "failStore", "A1", "S1", "20", "10", "failProd", "standard");
+            journal.append((byte) 5, "failProd", "Milk", "Whole Milk", "1gal", "Dairy", "3.99", "refrigerated");
+            journal.flush();
+        }
+        assertRecoveryFails(path, "Journal Record Can Not Be Applied");
+
+        Path unknown = directory.resolve("unknown.journal");
+        try (CommandJournal journal = CommandJournal.open(unknown)) {
+            journal.append((byte) 99, "corrupted");
+            journal.flush();
+        }
+        assertRecoveryFails(unknown, "Journal Operation Is Unknown");
+
+        Path malformed = directory.resolve("malformed.journal");
+        try (CommandJournal journal = CommandJournal.open(malformed)) {
+            journal.append((byte) 4, "failInv", "not a number");
+            journal.flush();
+        }
+        assertRecoveryFails(malformed, "Journal Record Is Malformed");
+        StoreService.clearAllMaps();
+    }
+
+    private static void assertRecoveryFails(Path path, String reason) throws Exception {
+        StoreService.clearAllMaps();
+        try (CommandJournal journal = CommandJournal.open(path)) {
+            StoreService recovered = new StoreService(null, null, journal);
+            StoreException e = assertThrows(StoreException.class, recovered::recoverJournal);
+            assertEquals("Recover Journal", e.getAction());
+            assertEquals(reason, e.getReason());
+        }
+    }
+
+    @Test
+    @DisplayName("Test StoreService saves and loads a binary snapshot of the whole model")
+    public void testSnapshotRoundTrip(@TempDir Path directory) throws Exception {
+        StoreService.clearAllMaps();
+        Path path = directory.resolve("store.snapshot");
+
+        storeService.provisionStore("snapStore", "Snapshot Store", "Address", null);
+        storeService.provisionAisle("snapStore", "A1", "Dairy", "Cold", AisleLocation.floor, null);
+        storeService.provisionShelf("snapStore", "A1", "S1", "Shelf", ShelfLevel.low, "Desc",
+                Temperature.refrigerated, null);
+        storeService.provisionProduct("snapProd", "Milk", "Whole Milk", "1gal", "Dairy", 3.99,
+                Temperature.refrigerated, null);
+        storeService.provisionInventory("snapInv", "snapStore", "A1", "S1", 20, 10, "snapProd",
+                InventoryType.standard, null);
+        storeService.provisionDevice("snapRobot", "Robot", "robot", "snapStore", "A1", null);
+        storeService.provisionCustomer("snapCust", "Jane", "Doe", CustomerType.registered,
+                "jane@example.com", "Address", null);
+        storeService.updateCustomer("snapCust", "snapStore", "A1", null);
+        storeService.provisionBasket("snapBasket", null);
+        storeService.assignCustomerBasket("snapCust", "snapBasket", null);
+        storeService.addBasketProduct("snapBasket", "snapProd", 4, null);
+
+        storeService.saveSnapshot(path);
+        StoreService.clearAllMaps();
+        assertEquals(0, storeService.loadSnapshot(path));
+
+        assertEquals(6, storeService.showInventory("snapInv", null).getCount());
+        assertEquals(1, storeService.showAisle("snapStore", "A1", null)
+                .getProductInventory("snapProd").size());
+        assertInstanceOf(Appliance.class, storeService.showDevice("snapRobot", null));
+
+        Customer customer = storeService.showCustomer("snapCust", null);
+        assertNotNull(customer.getLastSeen());
+        Basket basket = storeService.getCustomerBasket("snapCust", null);
+        assertEquals(4, basket.getProductMap().get("snapProd"));
+        assertSame(storeService.showStore("snapStore", null), basket.getStore());
+
+        //Relationships are live again, putting products back releases the Inventory
+        storeService.removeBasketProduct("snapBasket", "snapProd", 4, null);
+        assertEquals(10, storeService.showInventory("snapInv", null).getCount());
+
+        //Corrupted snapshot is rejected
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+        StoreException e = assertThrows(StoreException.class, () -> storeService.loadSnapshot(path));
+        assertEquals("Snapshot Is Corrupted", e.getReason());
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test StoreService snapshot taken during updates is not replayed twice on top of the journal")
+    public void testSnapshotDuringUpdates(@TempDir Path directory) throws Exception {
+        StoreService.clearAllMaps();
+        Path journalPath = directory.resolve("store.journal");
+        Path snapshotPath = directory.resolve("store.snapshot");
+        StoreWriteLanes lanes = new StoreWriteLanes(2);
+
+        try (CommandJournal journal = CommandJournal.open(journalPath)) {
+            StoreService journaled = new StoreService(null, lanes, journal);
+            journaled.provisionStore("barrierStore", "Barrier Store", "Address", null);
+            journaled.provisionAisle("barrierStore", "A1", "Dairy", "Cold", AisleLocation.floor, null);
+            journaled.provisionShelf("barrierStore", "A1", "S1", "Shelf", ShelfLevel.low, null,
+                    Temperature.refrigerated, null);
+            journaled.provisionProduct("barrierProd", "Milk", "Whole Milk", "1gal", "Dairy", 3.99,
+                    Temperature.refrigerated, null);
+            journaled.provisionInventory("barrierInv", "barrierStore", "A1", "S1", 100000, 0, "barrierProd",
+                    InventoryType.standard, null);
+
+            Thread updater = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        journaled.updateInventory("barrierInv", 1, null);
+                    } catch (StoreException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            updater.start();
+            while (journaled.showInventory("barrierInv", null).getCount() < 500) {
+                Thread.onSpinWait();
+            }
+            journaled.saveSnapshot(snapshotPath);
+            updater.join();
+        } finally {
+            lanes.shutdown();
+        }
+        StoreService.clearAllMaps();
+
+        try (CommandJournal journal = CommandJournal.open(journalPath)) {
+            StoreService recovered = new StoreService(null, null, journal);
+            recovered.recoverJournal(recovered.loadSnapshot(snapshotPath));
+            assertEquals(2000, recovered.showInventory("barrierInv", null).getCount());
+        }
+        StoreService.clearAllMaps();
+    }
+
+    @Test
+    @DisplayName("Test AuthenticationService session tokens are validated without the repository")
+    public void testSessionTokens() {
+        User admin = new User("admin@store.com", "admin123", "Admin User");
+        when(userRepository.findByEmail("admin@store.com")).thenReturn(Optional.of(admin));
+
+        assertNull(authenticationService.login("admin@store.com", "wrong"));
+        String token = authenticationService.login("admin@store.com", "admin123");
+        assertNotNull(token);
+
+        String header = "Basic " + Base64.getEncoder()
+                .encodeToString("admin@store.com:admin123".getBytes(StandardCharsets.UTF_8));
+        assertSame(admin, authenticationService.authenticateBasic(header));
+        assertNull(authenticationService.authenticateBasic("Basic !!!"));
+
+        //Validation is a cache lookup only
+        clearInvocations(userRepository);
+        assertSame(admin, authenticationService.validateToken(token));
+        assertNull(authenticationService.validateToken("unknown"));
+        verifyNoInteractions(userRepository);
+
+        assertTrue(authenticationService.logout(token));
+        assertNull(authenticationService.validateToken(token));
+    }
+
+    @Test
+    @DisplayName("Test SessionCache expires sessions and evicts the least recently used ones")
+    public void testSessionCacheExpiryAndEviction() {
+        AtomicLong clock = new AtomicLong(1000);
+        SessionCache cache = new SessionCache(16, 100, clock::get);
+        User user = new User("user@store.com", "user123", "Regular User");
+
+        String expiring = cache.create(user);
+        clock.addAndGet(100);
+        assertNull(cache.get(expiring));
+
+        String[] tokens = new String[16];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = cache.create(user);
+            clock.incrementAndGet();
+        }
+        //Touch the first session so that the second one becomes the least recently used
+        assertNotNull(cache.get(tokens[0]));
+        cache.create(user);
+
+        assertTrue(cache.size() <= 16);
+        assertNotNull(cache.get(tokens[0]));
+        assertNull(cache.get(tokens[1]));
+
+        cache.removeUser("user@store.com");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test StoreService rejects calls without a valid token when validation is enabled")
+    public void testStoreServiceTokenCheck() throws StoreException {
+        StoreService.clearAllMaps();
+        User admin = new User("admin@store.com", "admin123", "Admin User");
+        when(userRepository.findByEmail("admin@store.com")).thenReturn(Optional.of(admin));
+        StoreService secured = new StoreService(null, null, null, authenticationService);
+
+        StoreException e = assertThrows(StoreException.class,
+                () -> secured.provisionStore("tokenStore", "Store", "Address", null));
+        assertEquals("Invalid Token", e.getReason());
+
+        String token = authenticationService.login("admin@store.com", "admin123");
+        secured.provisionStore("tokenStore", "Store", "Address", token);
+        assertNotNull(secured.showStore("tokenStore", token));
+        assertThrows(StoreException.class, () -> secured.showStore("tokenStore", "forged"));
+        assertThrows(StoreException.class, () -> secured.getStores(null, 10, null));
+        assertThrows(StoreException.class, () -> secured.updateStore("tokenStore", "Desc", null, null));
+        assertThrows(StoreException.class, () -> secured.deleteStore("tokenStore", "forged"));
+        assertEquals(1, secured.getStores(null, 10, token).getItems().size());
+        secured.deleteStore("tokenStore", token);
+        StoreService.clearAllMaps();
+    }
+}